@@ -0,0 +1,68 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for loading the word list and validating guesses against it
+ *
+ * @author Max Morhardt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+
+	@Param("resources/word_list.txt")
+	private String wordListPath;
+
+	private WordDictionary dictionary;
+	private long[] packedGuesses;
+	private String[] guesses;
+	private int next;
+
+	@Setup
+	public void setup() {
+		dictionary = WordDictionary.load(wordListPath);
+		// Half of the guesses are in the word list, half are not
+		packedGuesses = new long[1024];
+		guesses = new String[packedGuesses.length];
+		for (int i = 0; i < packedGuesses.length; i++) {
+			long word = dictionary.get((i * 7919) % dictionary.size());
+			packedGuesses[i] = i % 2 == 0 ? word : word ^ 1;
+			guesses[i] = WordDictionary.unpack(packedGuesses[i], dictionary.getWordLength()).toUpperCase();
+		}
+	}
+
+	@Benchmark
+	public WordDictionary scanList() {
+		return WordDictionary.load(wordListPath);
+	}
+
+	@Benchmark
+	public boolean isInWordListPacked() {
+		int i = next++ & (packedGuesses.length - 1);
+		return dictionary.contains(packedGuesses[i]);
+	}
+
+	@Benchmark
+	public boolean isInWordListString() {
+		int i = next++ & (guesses.length - 1);
+		return dictionary.contains(guesses[i]);
+	}
+
+}
@@ -0,0 +1,73 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for playing whole games headless
+ *
+ * @author Max Morhardt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+	@Param("resources/word_list.txt")
+	private String wordListPath;
+
+	private GameEngine engine;
+	private Simulation entropySimulation;
+	private Simulation fixedGuessSimulation;
+	private Adversary adversary;
+	private CandidateSet allAnswers;
+	private long[] words;
+	private int next;
+
+	@Setup
+	public void setup() {
+		engine = GameEngine.forWordList(wordListPath);
+		entropySimulation = new Simulation(engine, new EntropySolver(engine));
+		// Typing the same words every game measures the engine alone
+		long[] openers = { WordDictionary.pack("slate"), WordDictionary.pack("crony"), WordDictionary.pack("humid"),
+				WordDictionary.pack("bawdy"), WordDictionary.pack("fight"), WordDictionary.pack("pique") };
+		fixedGuessSimulation = new Simulation(engine, session -> openers[session.getGuessCount()]);
+		// The first adversarial guess has every answer still possible, the slowest case
+		adversary = engine.getAdversary();
+		allAnswers = engine.newSession().getCandidates(0);
+		words = new long[engine.getDictionary().size()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = engine.getDictionary().get(i);
+		}
+	}
+
+	@Benchmark
+	public int playGameEntropySolver() {
+		return entropySimulation.play(next++ % engine.getDictionary().size());
+	}
+
+	@Benchmark
+	public int playGameFixedGuesses() {
+		return fixedGuessSimulation.play(next++ % engine.getDictionary().size());
+	}
+
+	@Benchmark
+	public int adversaryFirstGuess() {
+		return adversary.respond(words[next++ % words.length], allAnswers);
+	}
+
+}
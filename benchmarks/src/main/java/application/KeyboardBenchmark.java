@@ -0,0 +1,117 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for updating keyboard key states after a guess. The keys are
+ * plain labels and style strings so no JavaFX toolkit is needed. The nested
+ * loop is the original search over every key and is kept as a baseline for
+ * the KeyboardState model Wordle.updateKeyboardColors uses now.
+ *
+ * @author Max Morhardt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyboardBenchmark {
+
+	private static final String[][] KEY_LABELS = {
+		{ "Q", "W", "E", "R", "T", "Y", "U", "I", "O", "P" },
+		{ "A", "S", "D", "F", "G", "H", "J", "K", "L", "HINT" },
+		{ "ENTER", "Z", "X", "C", "V", "B", "N", "M", "<=" }
+	};
+	private static final String HIT_STYLE = "hit";
+	private static final String CONTAINS_STYLE = "contains";
+	private static final String MISS_STYLE = "miss";
+
+	@Param("resources/word_list.txt")
+	private String wordListPath;
+
+	private long[] guesses;
+	private int[] results;
+	private int length;
+	private String[][] keyStyles;
+	private KeyboardState keyboardState;
+	private String[] letterStyles;
+	private int next;
+
+	@Setup
+	public void setup() {
+		WordDictionary dictionary = WordDictionary.load(wordListPath);
+		length = dictionary.getWordLength();
+		guesses = new long[1024];
+		results = new int[guesses.length];
+		for (int i = 0; i < guesses.length; i++) {
+			guesses[i] = dictionary.get((i * 7919) % dictionary.size());
+			results[i] = Feedback.score(guesses[i], dictionary.get((i * 104729 + 13) % dictionary.size()), length);
+		}
+		keyStyles = new String[KEY_LABELS.length][];
+		for (int i = 0; i < KEY_LABELS.length; i++) {
+			keyStyles[i] = new String[KEY_LABELS[i].length];
+		}
+		keyboardState = new KeyboardState();
+		letterStyles = new String[KeyboardState.NUM_LETTERS];
+	}
+
+	@Benchmark
+	public String[][] updateKeyboardColorsNestedLoop() {
+		int n = next++ & (guesses.length - 1);
+		long guess = guesses[n];
+		int result = results[n];
+		for (int i = 0; i < KEY_LABELS.length; i++) {
+			for (int j = 0; j < KEY_LABELS[i].length; j++) {
+				for (int k = 0; k < length; k++) {
+					char currChar = (char) ('a' + WordDictionary.letterAt(guess, k));
+					if (("" + currChar).equals(KEY_LABELS[i][j].toLowerCase())) {
+						int value = Feedback.at(result, k);
+						if (value == Feedback.HIT) {
+							keyStyles[i][j] = HIT_STYLE;
+						} else if (value == Feedback.CONTAINS) {
+							keyStyles[i][j] = CONTAINS_STYLE;
+						} else {
+							keyStyles[i][j] = MISS_STYLE;
+						}
+					}
+				}
+			}
+		}
+		return keyStyles;
+	}
+
+	@Benchmark
+	public String[] updateKeyboardColorsStateModel() {
+		int n = next++ & (guesses.length - 1);
+		// Start each guess from a fresh keyboard like the nested loop does
+		if ((n & 7) == 0) keyboardState.reset();
+		int changed = keyboardState.apply(guesses[n], results[n], length);
+		while (changed != 0) {
+			int letter = Integer.numberOfTrailingZeros(changed);
+			changed &= changed - 1;
+			byte state = keyboardState.get(letter);
+			if (state == KeyboardState.CORRECT) {
+				letterStyles[letter] = HIT_STYLE;
+			} else if (state == KeyboardState.PRESENT) {
+				letterStyles[letter] = CONTAINS_STYLE;
+			} else {
+				letterStyles[letter] = MISS_STYLE;
+			}
+		}
+		return letterStyles;
+	}
+
+}
@@ -0,0 +1,131 @@
+package application;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for recording finished games from many threads at once,
+ * reading the top players from a leaderboard snapshot, and taking snapshots
+ *
+ * @author Max Morhardt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+	// Secret words of the games recorded while measuring
+	private static final int RECENT_WORDS = 32;
+	// Games between refreshes, more than a refresh moves one player at a time
+	private static final int MANY_GAMES = 200;
+
+	@Param("resources/word_list.txt")
+	private String wordListPath;
+
+	@Param("10000")
+	private int numPlayers;
+
+	private String[] players;
+	private long[] secrets;
+	private Leaderboard leaderboard;
+	private long popularSecret;
+	private long[] recentSecrets;
+
+	@Setup
+	public void setup() {
+		WordDictionary dictionary = WordDictionary.load(wordListPath);
+		players = new String[numPlayers];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = "player" + i;
+		}
+		secrets = new long[dictionary.size()];
+		for (int i = 0; i < secrets.length; i++) {
+			secrets[i] = dictionary.get(i);
+		}
+		// Every player has played ten games, and everyone has played one word
+		leaderboard = new Leaderboard();
+		popularSecret = secrets[0];
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (String player : players) {
+			leaderboard.record(player, popularSecret, true, 2 + random.nextInt(5), random.nextInt(300_000));
+			for (int game = 1; game < 10; game++) {
+				leaderboard.record(player, secrets[random.nextInt(secrets.length)], random.nextInt(10) != 0,
+						1 + random.nextInt(6), random.nextInt(300_000));
+			}
+		}
+		leaderboard.refresh();
+		// Games recorded while measuring use a few words, so the standings stop growing and only the counters change
+		recentSecrets = Arrays.copyOf(secrets, RECENT_WORDS);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void recordGame() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		leaderboard.record(players[random.nextInt(players.length)], recentSecrets[random.nextInt(recentSecrets.length)],
+				random.nextInt(10) != 0, 1 + random.nextInt(6), random.nextInt(300_000));
+	}
+
+	@Benchmark
+	public Object topTenFastest() {
+		return leaderboard.getSnapshot().top(LeaderboardSnapshot.Category.FASTEST_SOLVE, 10);
+	}
+
+	@Benchmark
+	public Object topTenAtOneWord() {
+		return leaderboard.getSnapshot().topForWord(popularSecret, LeaderboardSnapshot.Category.FEWEST_GUESSES, 10);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public LeaderboardSnapshot refreshAfterOneGame() {
+		// One player's row is rebuilt and moved within the rankings, and one word is ranked again
+		return recordAndRefresh(1);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public LeaderboardSnapshot refreshAfterManyGames() {
+		// Too many players changed to move one by one, so every player is sorted again
+		return recordAndRefresh(MANY_GAMES);
+	}
+
+	@Benchmark
+	public LeaderboardSnapshot refreshWithNoGames() {
+		return leaderboard.refresh();
+	}
+
+	/**
+	 * Records games won by random players, then takes a snapshot
+	 *
+	 * @param number of games
+	 * @return the new snapshot
+	 */
+	private LeaderboardSnapshot recordAndRefresh(int games) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int game = 0; game < games; game++) {
+			leaderboard.record(players[random.nextInt(players.length)],
+					recentSecrets[random.nextInt(recentSecrets.length)], true, 1 + random.nextInt(6),
+					random.nextInt(300_000));
+		}
+		return leaderboard.refresh();
+	}
+
+}
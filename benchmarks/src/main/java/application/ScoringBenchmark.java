@@ -0,0 +1,128 @@
+package application;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for scoring a guess against one secret word or the secret
+ * words of every board in a game
+ *
+ * @author Max Morhardt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+	@Param("resources/word_list.txt")
+	private String wordListPath;
+
+	private long[] guesses;
+	private long[] secrets;
+	private int length;
+	private long distinctGuess;
+	private long distinctSecret;
+	private long repeatedGuess;
+	private long repeatedSecret;
+	private long[] boardSecrets;
+	private long[] boardCounts;
+	private int[] boardResults;
+	private long[] allWords;
+	private int[] allResults;
+	private int next;
+
+	@Setup
+	public void setup() {
+		WordDictionary dictionary = WordDictionary.load(wordListPath);
+		length = dictionary.getWordLength();
+		guesses = new long[1024];
+		secrets = new long[guesses.length];
+		for (int i = 0; i < guesses.length; i++) {
+			guesses[i] = dictionary.get((i * 7919) % dictionary.size());
+			secrets[i] = dictionary.get((i * 104729 + 13) % dictionary.size());
+		}
+		distinctGuess = WordDictionary.pack("crane");
+		distinctSecret = WordDictionary.pack("trace");
+		// More E's in the guess than in the secret word
+		repeatedGuess = WordDictionary.pack("geese");
+		repeatedSecret = WordDictionary.pack("evade");
+		// Secret words of a game on the most boards
+		boardSecrets = new long[GameEngine.MAX_NUM_BOARDS];
+		for (int board = 0; board < boardSecrets.length; board++) {
+			boardSecrets[board] = dictionary.get((board * 15485863 + 7) % dictionary.size());
+		}
+		boardCounts = new long[2 * boardSecrets.length];
+		boardResults = new int[boardSecrets.length];
+		allWords = new long[dictionary.size()];
+		for (int i = 0; i < allWords.length; i++) {
+			allWords[i] = dictionary.get(i);
+		}
+		allResults = new int[allWords.length];
+		// Refuse to measure batch scoring that gives wrong results
+		FeedbackCheck.check(new Random(FeedbackCheck.DEFAULT_SEED), FeedbackCheck.DEFAULT_ROUNDS);
+	}
+
+	@Benchmark
+	public int checkGuessRandomPairs() {
+		int i = next++ & (guesses.length - 1);
+		return Feedback.score(guesses[i], secrets[i], length);
+	}
+
+	@Benchmark
+	public int checkGuessDistinctLetters() {
+		return Feedback.score(distinctGuess, distinctSecret, WordDictionary.DEFAULT_WORD_LENGTH);
+	}
+
+	@Benchmark
+	public int checkGuessRepeatedLetters() {
+		return Feedback.score(repeatedGuess, repeatedSecret, WordDictionary.DEFAULT_WORD_LENGTH);
+	}
+
+	@Benchmark
+	public int[] checkGuessSixteenBoards() {
+		int i = next++ & (guesses.length - 1);
+		Feedback.score(guesses[i], boardSecrets, (1 << boardSecrets.length) - 1, length, boardCounts, boardResults, 0);
+		return boardResults;
+	}
+
+	@Benchmark
+	public int[] checkGuessSixteenBoardsOneByOne() {
+		int i = next++ & (guesses.length - 1);
+		for (int board = 0; board < boardSecrets.length; board++) {
+			boardResults[board] = Feedback.score(guesses[i], boardSecrets[board], length);
+		}
+		return boardResults;
+	}
+
+	@Benchmark
+	public int[] checkGuessAllWords() {
+		int i = next++ & (guesses.length - 1);
+		Feedback.scoreAll(guesses[i], allWords, allWords.length, length, allResults);
+		return allResults;
+	}
+
+	@Benchmark
+	public int[] checkGuessAllWordsOneByOne() {
+		int i = next++ & (guesses.length - 1);
+		for (int secret = 0; secret < allWords.length; secret++) {
+			allResults[secret] = Feedback.score(guesses[i], allWords[secret], length);
+		}
+		return allResults;
+	}
+
+}
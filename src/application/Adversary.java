@@ -0,0 +1,112 @@
+package application;
+
+/**
+ * Chooses results for games where the secret word is never fixed, as in
+ * Absurdle. Each guess splits the answers still possible into buckets by
+ * the result they would give, and the adversary answers with the result
+ * of the largest bucket, so as few answers as possible are ruled out.
+ * Ties go to the result with the fewest hints, a hit counting as two
+ * and a contained letter as one, and then to the lowest result.
+ *
+ * One adversary is shared by every session of an engine. The answers are
+ * scored in one batch, the bucket counts are kept per thread, and only the
+ * buckets a guess touched are cleared.
+ *
+ * @author Max Morhardt
+ */
+public final class Adversary {
+
+	private final WordDictionary dictionary;
+	private final ThreadLocal<Scratch> scratch;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dictionary of allowed guesses and possible answers
+	 */
+	public Adversary(WordDictionary dictionary) {
+		this.dictionary = dictionary;
+		this.scratch = ThreadLocal.withInitial(() -> new Scratch(dictionary));
+	}
+
+	/**
+	 * Chooses the result of a guess that keeps the most answers possible
+	 *
+	 * @param packed guess
+	 * @param answers still possible, not changed
+	 * @return result from 0 to 3^length - 1
+	 */
+	public int respond(long guess, CandidateSet candidates) {
+		int length = dictionary.getWordLength();
+		Scratch space = scratch.get();
+		int[] counts = space.buckets;
+		int[] seen = space.touched;
+		// Gather the answers, score them at once, and count each result
+		int numAnswers = 0;
+		for (int word = candidates.nextCandidate(0); word >= 0; word = candidates.nextCandidate(word + 1)) {
+			space.answers[numAnswers++] = dictionary.get(word);
+		}
+		Feedback.scoreAll(guess, space.answers, numAnswers, length, space.results);
+		int numSeen = 0;
+		for (int i = 0; i < numAnswers; i++) {
+			int result = space.results[i];
+			if (counts[result]++ == 0) {
+				seen[numSeen++] = result;
+			}
+		}
+		if (numSeen == 0) {
+			return 0;
+		}
+		// Largest bucket wins, then the fewest hints, then the lowest result
+		int best = seen[0];
+		for (int i = 1; i < numSeen; i++) {
+			int result = seen[i];
+			if (counts[result] > counts[best] || (counts[result] == counts[best] && isFewerHints(result, best))) {
+				best = result;
+			}
+		}
+		for (int i = 0; i < numSeen; i++) {
+			counts[seen[i]] = 0;
+		}
+		return best;
+	}
+
+	/**
+	 * Checks if a result gives away less than another
+	 *
+	 * @param result
+	 * @param result to compare with
+	 * @return if it has fewer hints, or as many and is lower
+	 */
+	private static boolean isFewerHints(int result, int other) {
+		int weight = Feedback.hintWeight(result);
+		int otherWeight = Feedback.hintWeight(other);
+		return weight < otherWeight || (weight == otherWeight && result < other);
+	}
+
+	/**
+	 * Arrays one thread reuses for every guess it responds to
+	 */
+	private static final class Scratch {
+
+		private final int[] buckets;
+		private final int[] touched;
+		private final long[] answers;
+		private final int[] results;
+
+		/**
+		 * Constructor
+		 *
+		 * @param dictionary the answers come from
+		 */
+		private Scratch(WordDictionary dictionary) {
+			int numResults = Feedback.numResults(dictionary.getWordLength());
+			this.buckets = new int[numResults];
+			this.touched = new int[Math.min(numResults, dictionary.size())];
+			this.answers = new long[dictionary.size()];
+			this.results = new int[dictionary.size()];
+		}
+
+	}
+
+}
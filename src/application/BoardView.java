@@ -0,0 +1,47 @@
+package application;
+
+import javafx.scene.Node;
+
+/**
+ * One board of a game on screen, a column for each letter and a row for
+ * each guess. Games on several boards show one of these per secret word.
+ *
+ * @author Max Morhardt
+ */
+public interface BoardView {
+
+	// Result of a cell with no guess scored in it
+	int EMPTY = -1;
+
+	/**
+	 * Gets the node to add to the scene
+	 *
+	 * @return node showing the board
+	 */
+	Node getNode();
+
+	/**
+	 * Sets the letter shown in one cell
+	 *
+	 * @param column of the letter
+	 * @param row of the guess
+	 * @param text, empty to clear it
+	 */
+	void setText(int column, int row, String text);
+
+	/**
+	 * Sets the result shown by one cell, which picks its colors from the
+	 * theme
+	 *
+	 * @param column of the letter
+	 * @param row of the guess
+	 * @param result HIT, CONTAINS or MISS, or EMPTY
+	 */
+	void setResult(int column, int row, int result);
+
+	/**
+	 * Resets every cell to its starting state
+	 */
+	void reset();
+
+}
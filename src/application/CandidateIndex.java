@@ -0,0 +1,99 @@
+package application;
+
+/**
+ * Bitsets over a dictionary, built once and shared, that answer which words
+ * have a letter at a position and which words have a letter at least k
+ * times. Candidate sets intersect these instead of rescanning words.
+ *
+ * @author Max Morhardt
+ */
+public final class CandidateIndex {
+
+	private final int size;
+	private final int numLongs;
+	private final int wordLength;
+	// Words with a letter at a position, by position * 26 + letter
+	private final long[][] letterAtPosition;
+	// Words with a letter at least k times, by letter * (length + 1) + k
+	private final long[][] letterAtLeast;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dictionary to index
+	 */
+	public CandidateIndex(WordDictionary dictionary) {
+		size = dictionary.size();
+		numLongs = (size + 63) >>> 6;
+		wordLength = dictionary.getWordLength();
+		int length = wordLength;
+		letterAtPosition = new long[length * KeyboardState.NUM_LETTERS][numLongs];
+		letterAtLeast = new long[KeyboardState.NUM_LETTERS * (length + 1)][numLongs];
+		int[] counts = new int[KeyboardState.NUM_LETTERS];
+		for (int index = 0; index < size; index++) {
+			long word = dictionary.get(index);
+			long bit = 1L << index;
+			int slot = index >>> 6;
+			for (int i = 0; i < length; i++) {
+				int letter = WordDictionary.letterAt(word, i);
+				letterAtPosition[i * KeyboardState.NUM_LETTERS + letter][slot] |= bit;
+				counts[letter]++;
+				// The word now has this letter at least this many times
+				letterAtLeast[letter * (length + 1) + counts[letter]][slot] |= bit;
+			}
+			for (int i = 0; i < length; i++) {
+				counts[WordDictionary.letterAt(word, i)] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Gets the words with a letter at a position
+	 *
+	 * @param position
+	 * @param letter index from 0 (a) to 25 (z)
+	 * @return bitset, must not be modified
+	 */
+	long[] letterAt(int position, int letter) {
+		return letterAtPosition[position * KeyboardState.NUM_LETTERS + letter];
+	}
+
+	/**
+	 * Gets the words with a letter at least a number of times
+	 *
+	 * @param letter index from 0 (a) to 25 (z)
+	 * @param count from 1 to the word length
+	 * @return bitset, must not be modified
+	 */
+	long[] letterAtLeast(int letter, int count) {
+		return letterAtLeast[letter * (wordLength + 1) + count];
+	}
+
+	/**
+	 * Gets the number of words indexed
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of letters in every word indexed
+	 *
+	 * @return word length
+	 */
+	public int wordLength() {
+		return wordLength;
+	}
+
+	/**
+	 * Gets the number of longs in each bitset
+	 *
+	 * @return bitset length
+	 */
+	int numLongs() {
+		return numLongs;
+	}
+
+}
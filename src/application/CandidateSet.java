@@ -0,0 +1,166 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * The answers that are still possible after the guesses of a game, kept as
+ * a bitset over the dictionary and shrunk in place as each result comes in.
+ * Every result is applied by intersecting the shared index bitsets.
+ *
+ * @author Max Morhardt
+ */
+public final class CandidateSet {
+
+	private final CandidateIndex index;
+	private final long[] live;
+	private int size;
+
+	/**
+	 * Constructor, starting with every word possible
+	 *
+	 * @param index of the dictionary
+	 */
+	public CandidateSet(CandidateIndex index) {
+		this.index = index;
+		this.live = new long[index.numLongs()];
+		reset();
+	}
+
+	/**
+	 * Makes every word possible again
+	 */
+	public void reset() {
+		Arrays.fill(live, -1L);
+		int extra = live.length * 64 - index.size();
+		if (extra > 0) {
+			live[live.length - 1] >>>= extra;
+		}
+		size = index.size();
+	}
+
+	/**
+	 * Removes the words that would not have given a result for a guess
+	 *
+	 * @param packed guess
+	 * @param result of the guess
+	 * @return number of words still possible
+	 */
+	public int apply(long guess, int result) {
+		int length = index.wordLength();
+		// Letters at each position
+		for (int i = 0; i < length; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			if (Feedback.at(result, i) == Feedback.HIT) {
+				and(index.letterAt(i, letter));
+			} else {
+				andNot(index.letterAt(i, letter));
+			}
+		}
+		// How many times each letter of the guess is in the answer
+		int seen = 0;
+		for (int i = 0; i < length; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			if ((seen & (1 << letter)) != 0) continue;
+			seen |= 1 << letter;
+			int found = 0;
+			boolean missed = false;
+			for (int j = i; j < length; j++) {
+				if (WordDictionary.letterAt(guess, j) != letter) continue;
+				if (Feedback.at(result, j) == Feedback.MISS) {
+					missed = true;
+				} else {
+					found++;
+				}
+			}
+			if (found > 0) {
+				and(index.letterAtLeast(letter, found));
+			}
+			// A miss means the answer has the letter exactly as many times as it was found
+			if (missed) {
+				andNot(index.letterAtLeast(letter, found + 1));
+			}
+		}
+		size = 0;
+		for (long bits : live) {
+			size += Long.bitCount(bits);
+		}
+		return size;
+	}
+
+	/**
+	 * Checks if a word is still possible
+	 *
+	 * @param index of the word in the dictionary
+	 * @return if the word is still possible
+	 */
+	public boolean contains(int wordIndex) {
+		return (live[wordIndex >>> 6] & (1L << wordIndex)) != 0;
+	}
+
+	/**
+	 * Gets the number of words still possible
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the index of the first possible word at or after an index
+	 *
+	 * @param index to start from
+	 * @return index of the word or -1 if there are no more
+	 */
+	public int nextCandidate(int fromIndex) {
+		int slot = fromIndex >>> 6;
+		if (slot >= live.length) return -1;
+		long bits = live[slot] & (-1L << fromIndex);
+		while (bits == 0) {
+			if (++slot == live.length) return -1;
+			bits = live[slot];
+		}
+		return (slot << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Lists the indexes of the words still possible
+	 *
+	 * @return indexes in dictionary order
+	 */
+	public int[] toArray() {
+		int[] indexes = new int[size];
+		int count = 0;
+		for (int slot = 0; slot < live.length; slot++) {
+			long bits = live[slot];
+			while (bits != 0) {
+				indexes[count++] = (slot << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
+		return indexes;
+	}
+
+	/**
+	 * Keeps only the words in a bitset
+	 *
+	 * @param bitset
+	 */
+	private void and(long[] bits) {
+		for (int i = 0; i < live.length; i++) {
+			live[i] &= bits[i];
+		}
+	}
+
+	/**
+	 * Removes the words in a bitset
+	 *
+	 * @param bitset
+	 */
+	private void andNot(long[] bits) {
+		for (int i = 0; i < live.length; i++) {
+			live[i] &= ~bits[i];
+		}
+	}
+
+}
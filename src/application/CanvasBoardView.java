@@ -0,0 +1,138 @@
+package application;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Board drawn on a single canvas, one scene graph node however many cells
+ * it has. Changes only mark their cells dirty, and the dirty cells are
+ * copied from a shared glyph cache in one batch on the next turn of the
+ * JavaFX thread, so a guess that changes a whole row costs one repaint.
+ *
+ * @author Max Morhardt
+ */
+public class CanvasBoardView implements BoardView {
+
+	// Variables
+	private final Canvas canvas;
+	private final GlyphCache glyphs;
+	private final double step;
+	private final char[][] letters;
+	private final int[][] results;
+	// Bit mask of the dirty columns in each row
+	private final int[] dirtyColumns;
+	private boolean repaintScheduled;
+
+	/**
+	 * Constructor
+	 *
+	 * @param number of letters in a word
+	 * @param number of guesses in a game
+	 * @param images of the cells, also giving their size
+	 * @param space between the cells
+	 */
+	public CanvasBoardView(int wordLength, int numGuesses, GlyphCache glyphs, double spacing) {
+		this.glyphs = glyphs;
+		this.step = glyphs.getSize() + spacing;
+		this.letters = new char[wordLength][numGuesses];
+		this.results = new int[wordLength][numGuesses];
+		this.dirtyColumns = new int[numGuesses];
+		canvas = new Canvas(wordLength * step - spacing, numGuesses * step - spacing);
+		for (int i = 0; i < wordLength; i++) {
+			for (int j = 0; j < numGuesses; j++) {
+				results[i][j] = EMPTY;
+				markDirty(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Gets the canvas the board is drawn on
+	 *
+	 * @return canvas
+	 */
+	@Override
+	public Node getNode() {
+		return canvas;
+	}
+
+	/**
+	 * Sets the letter shown in one cell
+	 *
+	 * @param column of the letter
+	 * @param row of the guess
+	 * @param text, empty to clear it
+	 */
+	@Override
+	public void setText(int column, int row, String text) {
+		char letter = text.isEmpty() ? 0 : Character.toUpperCase(text.charAt(0));
+		if (letters[column][row] == letter) return;
+		letters[column][row] = letter;
+		markDirty(column, row);
+	}
+
+	/**
+	 * Sets the result shown by one cell
+	 *
+	 * @param column of the letter
+	 * @param row of the guess
+	 * @param result HIT, CONTAINS or MISS, or EMPTY
+	 */
+	@Override
+	public void setResult(int column, int row, int result) {
+		if (results[column][row] == result) return;
+		results[column][row] = result;
+		markDirty(column, row);
+	}
+
+	/**
+	 * Resets every cell to its starting state, only repainting the cells
+	 * that were changed
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < letters.length; i++) {
+			for (int j = 0; j < letters[i].length; j++) {
+				setText(i, j, "");
+				setResult(i, j, EMPTY);
+			}
+		}
+	}
+
+	/**
+	 * Marks a cell for repainting and schedules a repaint if none is
+	 * pending
+	 *
+	 * @param column of the cell
+	 * @param row of the cell
+	 */
+	private void markDirty(int column, int row) {
+		dirtyColumns[row] |= 1 << column;
+		if (!repaintScheduled) {
+			repaintScheduled = true;
+			Platform.runLater(this::repaint);
+		}
+	}
+
+	/**
+	 * Copies the image of every dirty cell onto the canvas
+	 */
+	private void repaint() {
+		repaintScheduled = false;
+		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		for (int row = 0; row < dirtyColumns.length; row++) {
+			int dirty = dirtyColumns[row];
+			dirtyColumns[row] = 0;
+			while (dirty != 0) {
+				int column = Integer.numberOfTrailingZeros(dirty);
+				dirty &= dirty - 1;
+				// Whole pixel positions keep the copied images sharp
+				graphics.drawImage(glyphs.get(results[column][row], letters[column][row]), Math.rint(column * step),
+						Math.rint(row * step));
+			}
+		}
+	}
+
+}
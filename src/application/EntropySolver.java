@@ -0,0 +1,231 @@
+package application;
+
+import java.util.stream.IntStream;
+
+/**
+ * Picks the guess that is expected to reveal the most information about
+ * the secret word. Every word in the dictionary is scored by how evenly it
+ * splits the answers that are still possible into results, using the
+ * precomputed feedback matrix, with the scoring spread across all cores.
+ *
+ * @author Max Morhardt
+ */
+public final class EntropySolver implements GuessStrategy {
+
+	// Error text
+	private static final String UNKNOWN_GUESS_TEXT = "The guess is not in the dictionary: ";
+
+	private final GameEngine engine;
+	private final FeedbackMatrix matrix;
+	// Count times the log of the count, for every possible bucket size
+	private final double[] countLogCount;
+	// Result counts for each thread, reused between guesses
+	private final ThreadLocal<int[]> buckets;
+	// Best opening guess, which never changes for a dictionary, kept apart
+	// for hard mode because it only picks from the possible answers
+	private volatile int firstGuess = -1;
+	private volatile int firstHardGuess = -1;
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine to solve games of
+	 */
+	public EntropySolver(GameEngine engine) {
+		this.engine = engine;
+		this.matrix = engine.getFeedbackMatrix();
+		int numResults = Feedback.numResults(engine.getWordLength());
+		this.buckets = ThreadLocal.withInitial(() -> new int[numResults]);
+		int size = engine.getDictionary().size();
+		countLogCount = new double[size + 1];
+		for (int count = 2; count <= size; count++) {
+			countLogCount[count] = count * Math.log(count);
+		}
+	}
+
+	/**
+	 * Finds the best next guess for a game in progress
+	 *
+	 * @param session
+	 * @return index of the guess in the dictionary
+	 */
+	public int bestGuess(GameSession session) {
+		boolean opening = session.getGuessCount() == 0;
+		boolean hardMode = session.isHardMode();
+		int cached = hardMode ? firstHardGuess : firstGuess;
+		if (opening && cached >= 0) {
+			return cached;
+		}
+		int[] candidates = findCandidates(session);
+		// In hard mode only words that could still be the answer are sure to use every hint
+		int best = hardMode ? bestCandidate(candidates) : bestGuessAmong(candidates);
+		if (opening && hardMode) {
+			firstHardGuess = best;
+		} else if (opening) {
+			firstGuess = best;
+		}
+		return best;
+	}
+
+	/**
+	 * Chooses the best next guess for a game in progress
+	 *
+	 * @param session
+	 * @return packed guess
+	 */
+	@Override
+	public long nextGuess(GameSession session) {
+		return engine.getDictionary().get(bestGuess(session));
+	}
+
+	/**
+	 * Finds the best next guess given the guesses made so far, outside of
+	 * hard mode
+	 *
+	 * @param packed guesses
+	 * @param results of the guesses
+	 * @return index of the guess in the dictionary
+	 * @throws IllegalArgumentException if a guess is not in the dictionary
+	 */
+	public int bestGuess(long[] guesses, int[] results) {
+		if (guesses.length == 0 && firstGuess >= 0) {
+			return firstGuess;
+		}
+		int[] candidates = findCandidates(guesses, results);
+		int best = bestGuessAmong(candidates);
+		if (guesses.length == 0) {
+			firstGuess = best;
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the best guess to split a set of possible answers
+	 *
+	 * @param indexes of the possible answers
+	 * @return index of the guess in the dictionary
+	 */
+	public int bestGuessAmong(int[] candidates) {
+		// Nothing left to learn, guess an answer outright
+		if (candidates.length <= 2) {
+			return candidates.length > 0 ? candidates[0] : 0;
+		}
+		int size = engine.getDictionary().size();
+		double[] scores = new double[size];
+		IntStream.range(0, size).parallel().forEach(guess -> scores[guess] = splitScore(guess, candidates));
+		// Lowest score wins, with possible answers winning ties
+		boolean[] isCandidate = new boolean[size];
+		for (int candidate : candidates) {
+			isCandidate[candidate] = true;
+		}
+		int best = candidates[0];
+		for (int guess = 0; guess < size; guess++) {
+			if (scores[guess] < scores[best] || (scores[guess] == scores[best] && isCandidate[guess] && !isCandidate[best])) {
+				best = guess;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the best guess to split a set of possible answers, choosing
+	 * only from the answers themselves
+	 *
+	 * @param indexes of the possible answers
+	 * @return index of the guess in the dictionary
+	 */
+	public int bestCandidate(int[] candidates) {
+		if (candidates.length <= 2) {
+			return candidates.length > 0 ? candidates[0] : 0;
+		}
+		int best = candidates[0];
+		double bestScore = splitScore(best, candidates);
+		for (int i = 1; i < candidates.length; i++) {
+			double score = splitScore(candidates[i], candidates);
+			if (score < bestScore) {
+				best = candidates[i];
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the answers that agree with every guess made in a game. Games
+	 * on several boards use the unsolved board with the fewest answers left,
+	 * so a board that is down to one word gets solved first.
+	 *
+	 * @param session
+	 * @return indexes of the possible answers
+	 */
+	public int[] findCandidates(GameSession session) {
+		CandidateSet fewest = null;
+		for (int board = 0; board < session.getBoardCount(); board++) {
+			if (session.isSolved(board)) continue;
+			CandidateSet candidates = session.getCandidates(board);
+			if (fewest == null || candidates.size() < fewest.size()) {
+				fewest = candidates;
+			}
+		}
+		return (fewest != null ? fewest : session.getCandidates()).toArray();
+	}
+
+	/**
+	 * Finds the answers that agree with every guess made so far
+	 *
+	 * @param packed guesses
+	 * @param results of the guesses
+	 * @return indexes of the possible answers
+	 * @throws IllegalArgumentException if a guess is not in the dictionary
+	 */
+	public int[] findCandidates(long[] guesses, int[] results) {
+		WordDictionary dictionary = engine.getDictionary();
+		int[] guessIndexes = new int[guesses.length];
+		for (int i = 0; i < guesses.length; i++) {
+			guessIndexes[i] = dictionary.indexOf(guesses[i]);
+			// The feedback matrix only has rows for words in the dictionary
+			if (guessIndexes[i] < 0) {
+				throw new IllegalArgumentException(
+						UNKNOWN_GUESS_TEXT + WordDictionary.unpack(guesses[i], engine.getWordLength()));
+			}
+		}
+		return IntStream.range(0, dictionary.size()).filter(secret -> {
+			for (int i = 0; i < guessIndexes.length; i++) {
+				if (matrix.get(guessIndexes[i], secret) != results[i]) return false;
+			}
+			return true;
+		}).toArray();
+	}
+
+	/**
+	 * Gets the expected information of a guess, where lower is better. The
+	 * entropy of a guess is log(n) - sum(c log c) / n over its result
+	 * counts c, so the sum alone ranks guesses the same way.
+	 *
+	 * @param index of the guess in the dictionary
+	 * @param indexes of the possible answers
+	 * @return sum of c log c over the result counts
+	 */
+	private double splitScore(int guess, int[] candidates) {
+		int[] counts = buckets.get();
+		for (int candidate : candidates) {
+			counts[matrix.get(guess, candidate)]++;
+		}
+		double score = 0;
+		if (candidates.length < counts.length) {
+			// Long words have far more results than answers, so only visit the results seen
+			for (int candidate : candidates) {
+				int result = matrix.get(guess, candidate);
+				score += countLogCount[counts[result]];
+				counts[result] = 0;
+			}
+			return score;
+		}
+		for (int result = 0; result < counts.length; result++) {
+			score += countLogCount[counts[result]];
+			counts[result] = 0;
+		}
+		return score;
+	}
+
+}
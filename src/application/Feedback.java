@@ -0,0 +1,322 @@
+package application;
+
+/**
+ * Scores guesses against secret words. The result for each position is a
+ * base 3 digit (0 miss, 1 contains, 2 hit) with the first letter as the
+ * lowest digit, so a whole result fits in an int from 0 to 3^length - 1.
+ *
+ * @author Max Morhardt
+ */
+public final class Feedback {
+
+	// Digit values
+	public static final int MISS = 0;
+	public static final int CONTAINS = 1;
+	public static final int HIT = 2;
+
+	// Place values of each position, and the number of results by word length
+	private static final int[] POWERS_OF_THREE = new int[WordDictionary.MAX_WORD_LENGTH + 1];
+	static {
+		POWERS_OF_THREE[0] = 1;
+		for (int i = 1; i < POWERS_OF_THREE.length; i++) {
+			POWERS_OF_THREE[i] = POWERS_OF_THREE[i - 1] * 3;
+		}
+	}
+
+	// Result of a set of positions all contained, indexed by a bit mask of the positions. Hits are twice this.
+	private static final int[] CONTAINED_RESULTS = new int[1 << WordDictionary.MAX_WORD_LENGTH];
+	static {
+		for (int positions = 1; positions < CONTAINED_RESULTS.length; positions++) {
+			CONTAINED_RESULTS[positions] = CONTAINED_RESULTS[positions & (positions - 1)]
+					+ POWERS_OF_THREE[Integer.numberOfTrailingZeros(positions)];
+		}
+	}
+
+	// Lowest bit of each 5 bit letter in a packed word
+	private static final long LETTER_LOW_BITS = 0x0084210842108421L;
+
+	// Characters used when printing a result
+	private static final char HIT_CHAR = 'G';
+	private static final char CONTAINS_CHAR = 'Y';
+	private static final char MISS_CHAR = 'X';
+
+	/**
+	 * Not instantiable
+	 */
+	private Feedback() {
+	}
+
+	/**
+	 * Scores a packed guess against a packed secret word. Repeated letters
+	 * are only marked as contained as many times as they appear in the
+	 * secret word after hits are taken out.
+	 *
+	 * @param packed guess
+	 * @param packed secret word
+	 * @param number of letters in both words
+	 * @return result from 0 to 3^length - 1
+	 */
+	public static int score(long guess, long secret, int length) {
+		// A letter is a hit when its 5 bits are all equal, found for every letter at once
+		long diff = guess ^ secret;
+		long missed = (diff | diff >>> 1 | diff >>> 2 | diff >>> 3 | diff >>> 4) & LETTER_LOW_BITS;
+		long letters = LETTER_LOW_BITS & ((1L << (length * WordDictionary.BITS_PER_LETTER)) - 1);
+		long hits = ~missed & letters;
+		// Letters of the secret word left over after hits, 4 bits per letter, a to p then q to z
+		long lowCounts = 0;
+		long highCounts = 0;
+		int result = 0;
+		for (int i = 0; i < length; i++) {
+			if ((hits >>> (i * WordDictionary.BITS_PER_LETTER) & 1) != 0) {
+				result += HIT * POWERS_OF_THREE[i];
+				continue;
+			}
+			int letter = WordDictionary.letterAt(secret, i);
+			if (letter < 16) {
+				lowCounts += 1L << (letter << 2);
+			} else {
+				highCounts += 1L << ((letter - 16) << 2);
+			}
+		}
+		if (hits == letters) {
+			return result;
+		}
+		// Each guess letter that is not a hit takes one leftover copy, if there is one
+		for (int i = 0; i < length; i++) {
+			if ((hits >>> (i * WordDictionary.BITS_PER_LETTER) & 1) != 0) continue;
+			int letter = WordDictionary.letterAt(guess, i);
+			if (letter < 16) {
+				long one = 1L << (letter << 2);
+				if ((lowCounts & (0xFL * one)) != 0) {
+					lowCounts -= one;
+					result += CONTAINS * POWERS_OF_THREE[i];
+				}
+			} else {
+				long one = 1L << ((letter - 16) << 2);
+				if ((highCounts & (0xFL * one)) != 0) {
+					highCounts -= one;
+					result += CONTAINS * POWERS_OF_THREE[i];
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Scores one packed guess against several secret words at once, for
+	 * games with more than one board. Hits and leftover letters are found
+	 * for each board first, then a single pass over the guess letters marks
+	 * contained letters on every board. Boards not in the mask are skipped
+	 * and their results left as they were.
+	 *
+	 * @param packed guess
+	 * @param packed secret words, one per board
+	 * @param bit mask of the boards to score
+	 * @param number of letters in every word
+	 * @param scratch space of two longs per board
+	 * @param results, one per board from the offset
+	 * @param offset of the first board's result
+	 */
+	public static void score(long guess, long[] secrets, int boards, int length, long[] counts, int[] results,
+			int offset) {
+		long letters = LETTER_LOW_BITS & ((1L << (length * WordDictionary.BITS_PER_LETTER)) - 1);
+		int scoring = 0;
+		for (int remaining = boards; remaining != 0; remaining &= remaining - 1) {
+			int board = Integer.numberOfTrailingZeros(remaining);
+			long secret = secrets[board];
+			long diff = guess ^ secret;
+			long hits = ~(diff | diff >>> 1 | diff >>> 2 | diff >>> 3 | diff >>> 4) & letters;
+			if (hits == letters) {
+				results[offset + board] = POWERS_OF_THREE[length] - 1;
+				continue;
+			}
+			// Hits, and the letters of the secret word left over after them
+			long lowCounts = 0;
+			long highCounts = 0;
+			int result = 0;
+			for (int i = 0; i < length; i++) {
+				if ((hits >>> (i * WordDictionary.BITS_PER_LETTER) & 1) != 0) {
+					result += HIT * POWERS_OF_THREE[i];
+					continue;
+				}
+				int letter = WordDictionary.letterAt(secret, i);
+				if (letter < 16) {
+					lowCounts += 1L << (letter << 2);
+				} else {
+					highCounts += 1L << ((letter - 16) << 2);
+				}
+			}
+			counts[2 * board] = lowCounts;
+			counts[2 * board + 1] = highCounts;
+			results[offset + board] = result;
+			scoring |= 1 << board;
+		}
+		// Each guess letter is read once and takes a leftover copy on every board that has one
+		for (int i = 0; i < length && scoring != 0; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			int half = letter < 16 ? 0 : 1;
+			long one = 1L << ((letter & 15) << 2);
+			for (int remaining = scoring; remaining != 0; remaining &= remaining - 1) {
+				int board = Integer.numberOfTrailingZeros(remaining);
+				if (WordDictionary.letterAt(secrets[board], i) == letter) continue;
+				int slot = 2 * board + half;
+				if ((counts[slot] & (0xFL * one)) != 0) {
+					counts[slot] -= one;
+					results[offset + board] += CONTAINS * POWERS_OF_THREE[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scores one packed guess against many secret words, as solvers and
+	 * simulations do. The guess is read once into a table of where each of
+	 * its letters is, then each secret word takes one table lookup per letter
+	 * and no branches. The looked up positions give the hits and the letters
+	 * found elsewhere as bit masks, and two more lookups turn those into the
+	 * result. Letters repeated in the guess are counted separately so each
+	 * is only marked as contained as many times as it is left over.
+	 * FeedbackCheck checks the results against score.
+	 *
+	 * This is plain scalar code rather than the Vector API. That API is
+	 * still an incubator module, which would need --add-modules for every
+	 * build and run of the game, and the work per letter is a lookup in a
+	 * 32 entry table by a 5 bit field, which it has no cheap way to gather.
+	 *
+	 * @param packed guess
+	 * @param packed secret words
+	 * @param number of secret words to score, from the first
+	 * @param number of letters in every word
+	 * @param results, one per secret word
+	 */
+	public static void scoreAll(long guess, long[] secrets, int count, int length, int[] results) {
+		// Bit mask of the guess positions holding each letter
+		int[] guessPositions = new int[1 << WordDictionary.BITS_PER_LETTER];
+		int repeated = 0;
+		for (int i = 0; i < length; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			if (guessPositions[letter] != 0) {
+				repeated |= 1 << letter;
+			}
+			guessPositions[letter] |= 1 << i;
+		}
+		// Positions whose letter appears only once in the guess
+		int singlePositions = (1 << length) - 1;
+		for (int remaining = repeated; remaining != 0; remaining &= remaining - 1) {
+			singlePositions &= ~guessPositions[Integer.numberOfTrailingZeros(remaining)];
+		}
+		long letters = LETTER_LOW_BITS & ((1L << (length * WordDictionary.BITS_PER_LETTER)) - 1);
+		for (int s = 0; s < count; s++) {
+			long secret = secrets[s];
+			// Guess positions sharing a letter with any secret position, and with the same position
+			int present = 0;
+			int hits = 0;
+			for (int j = 0; j < length; j++) {
+				int positions = guessPositions[(int) (secret >>> (j * WordDictionary.BITS_PER_LETTER))
+						& WordDictionary.LETTER_MASK];
+				present |= positions;
+				hits |= positions & (1 << j);
+			}
+			// A letter once in the guess is contained if the secret word has it anywhere but a hit
+			int contained = present & ~hits & singlePositions;
+			for (int remaining = repeated; remaining != 0; remaining &= remaining - 1) {
+				int letter = Integer.numberOfTrailingZeros(remaining);
+				// Copies of the letter in the secret word, less the ones hit, go to the leftmost other guess positions
+				long diff = secret ^ (letter * letters);
+				long copies = ~(diff | diff >>> 1 | diff >>> 2 | diff >>> 3 | diff >>> 4) & letters;
+				int leftover = Long.bitCount(copies) - Integer.bitCount(guessPositions[letter] & hits);
+				for (int open = guessPositions[letter] & ~hits; leftover > 0 && open != 0; leftover--) {
+					contained |= open & -open;
+					open &= open - 1;
+				}
+			}
+			results[s] = HIT * CONTAINED_RESULTS[hits] + CONTAINS * CONTAINED_RESULTS[contained];
+		}
+	}
+
+	/**
+	 * Scores a guess against a secret word given as character arrays of the
+	 * same length
+	 *
+	 * @param guess characters
+	 * @param secret word characters
+	 * @return result from 0 to 3^length - 1
+	 */
+	public static int score(char[] guess, char[] secret) {
+		return score(WordDictionary.pack(guess), WordDictionary.pack(secret), guess.length);
+	}
+
+	/**
+	 * Gets the number of possible results for a word length
+	 *
+	 * @param number of letters in a word
+	 * @return 3^length
+	 */
+	public static int numResults(int length) {
+		return POWERS_OF_THREE[length];
+	}
+
+	/**
+	 * Gets the result of a guess that is the secret word
+	 *
+	 * @param number of letters in a word
+	 * @return 3^length - 1
+	 */
+	public static int allHits(int length) {
+		return POWERS_OF_THREE[length] - 1;
+	}
+
+	/**
+	 * Gets the result of one position
+	 *
+	 * @param result
+	 * @param position
+	 * @return HIT, CONTAINS or MISS
+	 */
+	public static int at(int result, int position) {
+		return (result / POWERS_OF_THREE[position]) % 3;
+	}
+
+	/**
+	 * Weighs how much a result gives away, as the sum of its digits, so a
+	 * hit counts as two hints and a contained letter as one
+	 *
+	 * @param result
+	 * @return 0 for all misses, up to twice the word length
+	 */
+	public static int hintWeight(int result) {
+		int weight = 0;
+		for (; result > 0; result /= 3) {
+			weight += result % 3;
+		}
+		return weight;
+	}
+
+	/**
+	 * Checks if every position is a hit
+	 *
+	 * @param result
+	 * @param number of letters in a word
+	 * @return if the guess was the secret word
+	 */
+	public static boolean isAllHits(int result, int length) {
+		return result == POWERS_OF_THREE[length] - 1;
+	}
+
+	/**
+	 * Writes a result as a string of hits, misses, and in the word values
+	 *
+	 * @param result
+	 * @param number of letters in a word
+	 * @return string such as "GYXXG"
+	 */
+	public static String toString(int result, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < chars.length; i++) {
+			int value = at(result, i);
+			chars[i] = value == HIT ? HIT_CHAR : value == CONTAINS ? CONTAINS_CHAR : MISS_CHAR;
+		}
+		return new String(chars);
+	}
+
+}
@@ -0,0 +1,95 @@
+package application;
+
+import java.util.Random;
+
+/**
+ * Self-check that batch scoring with Feedback.scoreAll gives the same
+ * results as scoring one pair at a time. Words of every length are drawn
+ * from small alphabets so letters repeat often. It needs no benchmark
+ * harness, so a change to scoreAll can be checked with a plain java run,
+ * and the scoring benchmark runs it again before measuring.
+ *
+ * Usage: FeedbackCheck [seed] [rounds per length]
+ *
+ * @author Max Morhardt
+ */
+public final class FeedbackCheck {
+
+	// Defaults for the command line
+	public static final long DEFAULT_SEED = 42;
+	public static final int DEFAULT_ROUNDS = 500;
+
+	// Secret words scored against each guess
+	private static final int BATCH_SIZE = 256;
+
+	// Error text
+	private static final String MISMATCH_TEXT = "Batch scoring disagrees with single scoring for ";
+
+	/**
+	 * Not instantiable
+	 */
+	private FeedbackCheck() {
+	}
+
+	/**
+	 * Checks batch scoring against single scoring
+	 *
+	 * @param random source of words
+	 * @param rounds of one guess and a batch of secret words for each length
+	 * @return number of pairs checked
+	 * @throws IllegalStateException naming the first pair that disagrees
+	 */
+	public static long check(Random random, int rounds) {
+		long[] batch = new long[BATCH_SIZE];
+		int[] results = new int[batch.length];
+		long checked = 0;
+		for (int length = WordDictionary.MIN_WORD_LENGTH; length <= WordDictionary.MAX_WORD_LENGTH; length++) {
+			for (int round = 0; round < rounds; round++) {
+				int alphabet = 1 + random.nextInt(KeyboardState.NUM_LETTERS);
+				long guess = randomWord(random, length, alphabet);
+				// Some secret words are the guess itself, to check a full hit
+				for (int i = 0; i < batch.length; i++) {
+					batch[i] = random.nextInt(10) == 0 ? guess : randomWord(random, length, alphabet);
+				}
+				Feedback.scoreAll(guess, batch, batch.length, length, results);
+				for (int i = 0; i < batch.length; i++) {
+					if (results[i] != Feedback.score(guess, batch[i], length)) {
+						throw new IllegalStateException(MISMATCH_TEXT + WordDictionary.unpack(guess, length) + " "
+								+ WordDictionary.unpack(batch[i], length));
+					}
+				}
+				checked += batch.length;
+			}
+		}
+		return checked;
+	}
+
+	/**
+	 * Makes a random word from the first letters of the alphabet
+	 *
+	 * @param random source of letters
+	 * @param number of letters
+	 * @param number of letters of the alphabet to use
+	 * @return packed word
+	 */
+	private static long randomWord(Random random, int length, int alphabet) {
+		char[] letters = new char[length];
+		for (int i = 0; i < length; i++) {
+			letters[i] = (char) ('a' + random.nextInt(alphabet));
+		}
+		return WordDictionary.pack(letters);
+	}
+
+	/**
+	 * Main method, exits with an exception if any pair disagrees
+	 *
+	 * @param args seed and rounds per length
+	 */
+	public static void main(String[] args) {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_SEED;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+		long checked = check(new Random(seed), rounds);
+		System.out.printf("Batch scoring matches single scoring for %d pairs (seed %d)%n", checked, seed);
+	}
+
+}
@@ -0,0 +1,270 @@
+package application;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed results of every guess against every secret word in a
+ * dictionary. Each pair takes the fewest bytes that hold every result for
+ * the word length: one byte up to 5 letters, two up to 10, and four above.
+ * The table is built in parallel the first time it is needed and cached in
+ * a versioned binary file that later runs memory map instead of rebuilding.
+ *
+ * @author Max Morhardt
+ */
+public final class FeedbackMatrix {
+
+	// Cache file layout: magic, version, word count, word length, dictionary checksum, results
+	private static final int MAGIC = 0x57464D58;
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+
+	// File name suffix of the cache
+	private static final String CACHE_SUFFIX = ".fbm";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final String TEMP_FOLDER_PROPERTY = "java.io.tmpdir";
+
+	// Error text
+	private static final String CACHE_WRITE_ERROR_TEXT = "The feedback cache could not be written";
+	private static final String TOO_LARGE_TEXT = "The feedback matrix would be over 2 GB for words: ";
+
+	private final int size;
+	private final int cellBytes;
+	private final ByteBuffer results;
+
+	/**
+	 * Constructor
+	 *
+	 * @param number of words on each side of the table
+	 * @param bytes per result
+	 * @param results buffer positioned at the first result
+	 */
+	private FeedbackMatrix(int size, int cellBytes, ByteBuffer results) {
+		this.size = size;
+		this.cellBytes = cellBytes;
+		this.results = results;
+	}
+
+	/**
+	 * Opens the matrix cached next to a word list, building and saving it
+	 * if the cache is missing or was made from a different word list. When
+	 * the word list's folder does not exist, such as when the list was
+	 * loaded from the classpath, the cache goes in the temp folder instead,
+	 * named with the dictionary's checksum so different lists of the same
+	 * name never share a file.
+	 *
+	 * @param dictionary loaded from the word list
+	 * @param path of the word list file
+	 * @return feedback matrix
+	 */
+	public static FeedbackMatrix open(WordDictionary dictionary, String wordListPath) {
+		Path cachePath = cachePathFor(wordListPath);
+		Path folder = cachePath.toAbsolutePath().getParent();
+		if (folder == null || !Files.isDirectory(folder)) {
+			String fileName = WordDictionary.siblingPath(cachePath.getFileName().toString(),
+					String.format(Locale.ROOT, "-%016x%s", dictionary.checksum(), CACHE_SUFFIX));
+			cachePath = Paths.get(System.getProperty(TEMP_FOLDER_PROPERTY), fileName);
+		}
+		return open(dictionary, cachePath);
+	}
+
+	/**
+	 * Opens the matrix from a cache file, building and saving it if the
+	 * cache is missing or was made from a different dictionary
+	 *
+	 * @param dictionary
+	 * @param path of the cache file
+	 * @return feedback matrix
+	 */
+	public static FeedbackMatrix open(WordDictionary dictionary, Path cachePath) {
+		FeedbackMatrix cached = map(dictionary, cachePath);
+		if (cached != null) {
+			return cached;
+		}
+		byte[] table = build(dictionary);
+		try {
+			write(dictionary, table, cachePath);
+		} catch (IOException e) {
+			System.out.println(CACHE_WRITE_ERROR_TEXT);
+			e.printStackTrace();
+		}
+		return new FeedbackMatrix(dictionary.size(), cellBytes(dictionary.getWordLength()), ByteBuffer.wrap(table));
+	}
+
+	/**
+	 * Builds the matrix in memory without touching any cache file
+	 *
+	 * @param dictionary
+	 * @return feedback matrix
+	 */
+	public static FeedbackMatrix compute(WordDictionary dictionary) {
+		return new FeedbackMatrix(dictionary.size(), cellBytes(dictionary.getWordLength()),
+				ByteBuffer.wrap(build(dictionary)));
+	}
+
+	/**
+	 * Gets the cache file that belongs to a word list
+	 *
+	 * @param path of the word list file
+	 * @return path of the cache file
+	 */
+	public static Path cachePathFor(String wordListPath) {
+		return Paths.get(WordDictionary.siblingPath(wordListPath, CACHE_SUFFIX));
+	}
+
+	/**
+	 * Gets the result of a guess against a secret word
+	 *
+	 * @param index of the guess in the dictionary
+	 * @param index of the secret word in the dictionary
+	 * @return result from 0 to 3^length - 1
+	 */
+	public int get(int guessIndex, int secretIndex) {
+		int cell = guessIndex * size + secretIndex;
+		switch (cellBytes) {
+		case Byte.BYTES:
+			return results.get(cell) & 0xFF;
+		case Character.BYTES:
+			return results.getChar(cell * Character.BYTES);
+		default:
+			return results.getInt(cell * Integer.BYTES);
+		}
+	}
+
+	/**
+	 * Gets the number of words on each side of the table
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the bytes needed for every result of a word length
+	 *
+	 * @param number of letters in a word
+	 * @return 1, 2 or 4
+	 */
+	private static int cellBytes(int length) {
+		int numResults = Feedback.numResults(length);
+		return numResults <= 1 << Byte.SIZE ? Byte.BYTES
+				: numResults <= 1 << Character.SIZE ? Character.BYTES : Integer.BYTES;
+	}
+
+	/**
+	 * Scores every pair of words, one row per guess in parallel
+	 *
+	 * @param dictionary
+	 * @return row major table of results
+	 */
+	private static byte[] build(WordDictionary dictionary) {
+		int n = dictionary.size();
+		int length = dictionary.getWordLength();
+		int cellBytes = cellBytes(length);
+		if ((long) n * n * cellBytes > Integer.MAX_VALUE - HEADER_SIZE) {
+			throw new IllegalArgumentException(TOO_LARGE_TEXT + n);
+		}
+		byte[] table = new byte[n * n * cellBytes];
+		// Absolute puts into disjoint rows, so the rows can be filled at once
+		ByteBuffer cells = ByteBuffer.wrap(table);
+		long[] words = new long[n];
+		for (int i = 0; i < n; i++) {
+			words[i] = dictionary.get(i);
+		}
+		// Each row is scored in one batch, into a row of results kept per thread
+		ThreadLocal<int[]> rows = ThreadLocal.withInitial(() -> new int[n]);
+		IntStream.range(0, n).parallel().forEach(guessIndex -> {
+			int[] row = rows.get();
+			Feedback.scoreAll(words[guessIndex], words, n, length, row);
+			int offset = guessIndex * n;
+			for (int secretIndex = 0; secretIndex < n; secretIndex++) {
+				int result = row[secretIndex];
+				int cell = offset + secretIndex;
+				if (cellBytes == Byte.BYTES) {
+					table[cell] = (byte) result;
+				} else if (cellBytes == Character.BYTES) {
+					cells.putChar(cell * Character.BYTES, (char) result);
+				} else {
+					cells.putInt(cell * Integer.BYTES, result);
+				}
+			}
+		});
+		return table;
+	}
+
+	/**
+	 * Memory maps a cache file if it matches the dictionary
+	 *
+	 * @param dictionary
+	 * @param path of the cache file
+	 * @return feedback matrix or null if the cache is missing or stale
+	 */
+	private static FeedbackMatrix map(WordDictionary dictionary, Path cachePath) {
+		if (!Files.isRegularFile(cachePath)) {
+			return null;
+		}
+		int n = dictionary.size();
+		int length = dictionary.getWordLength();
+		int cellBytes = cellBytes(length);
+		try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+			if (channel.size() != HEADER_SIZE + (long) n * n * cellBytes) {
+				return null;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != n
+					|| buffer.getInt() != length || buffer.getLong() != dictionary.checksum()) {
+				return null;
+			}
+			return new FeedbackMatrix(n, cellBytes, buffer.slice());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a cache file, replacing any old one once it is complete. Each
+	 * write goes to its own uniquely named temp file, so two processes
+	 * building the same cache at once never write into the same file.
+	 *
+	 * @param dictionary
+	 * @param row major table of results
+	 * @param path of the cache file
+	 * @throws IOException if the file could not be written
+	 */
+	private static void write(WordDictionary dictionary, byte[] table, Path cachePath) throws IOException {
+		Path temp = Files.createTempFile(cachePath.toAbsolutePath().getParent(), cachePath.getFileName().toString(),
+				TEMP_SUFFIX);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putInt(dictionary.size()).putInt(dictionary.getWordLength())
+				.putLong(dictionary.checksum()).flip();
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				channel.write(header);
+				ByteBuffer body = ByteBuffer.wrap(table);
+				while (body.hasRemaining()) {
+					channel.write(body);
+				}
+			}
+			try {
+				Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			// Only left behind if the write or move failed
+			Files.deleteIfExists(temp);
+		}
+	}
+
+}
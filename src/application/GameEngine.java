@@ -0,0 +1,365 @@
+package application;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rules of the game without any view. An engine shares one immutable
+ * dictionary between every session it creates, so sessions only hold
+ * their own small amount of state and are cheap to create in bulk.
+ *
+ * @author Max Morhardt
+ */
+public final class GameEngine {
+
+	// Limits on the number of guesses in a game
+	public static final int DEFAULT_NUM_GUESSES = 6;
+	public static final int MAX_NUM_GUESSES = 24;
+
+	// Limits on the number of boards, each with its own secret word, and
+	// the guesses a game with more than one board has beyond its boards
+	public static final int MAX_NUM_BOARDS = 16;
+	public static final int EXTRA_MULTI_BOARD_GUESSES = 5;
+
+	// Word lists by length, the five letter list has no suffix
+	private static final String WORD_LIST_PREFIX = "resources/word_list";
+	private static final String WORD_LIST_SUFFIX = ".txt";
+
+	// Error text
+	private static final String NUM_GUESSES_ERROR_TEXT = "Games must have 1 to 24 guesses, not ";
+	private static final String NUM_BOARDS_ERROR_TEXT = "Games must have 1 to 16 boards, not ";
+	private static final String NO_WORDS_ERROR_TEXT = "The word list is missing or has no words: ";
+
+	// Engines already loaded, by word list path and number of guesses
+	private static final Map<String, GameEngine> ENGINES = new ConcurrentHashMap<>();
+
+	private final WordDictionary dictionary;
+	private final int numGuesses;
+	// Word list the dictionary was read from, null if it was built in memory
+	private final String wordListPath;
+	// Engine that builds the shared tables, the same dictionary with the default guesses
+	private final GameEngine tables;
+	private volatile FeedbackMatrix feedbackMatrix;
+	private volatile CandidateIndex candidateIndex;
+	private volatile Adversary adversary;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dictionary of allowed guesses and secret words
+	 * @param number of guesses in a game
+	 */
+	public GameEngine(WordDictionary dictionary, int numGuesses) {
+		this(dictionary, numGuesses, null, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param dictionary of allowed guesses and secret words
+	 * @param number of guesses in a game
+	 * @param path of the word list the dictionary was read from
+	 * @param engine to share tables with, or null to build its own
+	 */
+	private GameEngine(WordDictionary dictionary, int numGuesses, String wordListPath, GameEngine tables) {
+		if (numGuesses < 1 || numGuesses > MAX_NUM_GUESSES) {
+			throw new IllegalArgumentException(NUM_GUESSES_ERROR_TEXT + numGuesses);
+		}
+		this.dictionary = dictionary;
+		this.numGuesses = numGuesses;
+		this.wordListPath = wordListPath;
+		this.tables = tables == null ? this : tables;
+	}
+
+	/**
+	 * Gets the engine for a word list, reading the list only the first time
+	 *
+	 * @param path of the word list file
+	 * @return shared engine
+	 */
+	public static GameEngine forWordList(String wordListPath) {
+		return forWordList(wordListPath, DEFAULT_NUM_GUESSES);
+	}
+
+	/**
+	 * Gets the engine for a word list and number of guesses, reading the
+	 * list only the first time. Engines for the same list share one
+	 * dictionary, feedback matrix, and candidate index.
+	 *
+	 * @param path of the word list file
+	 * @param number of guesses in a game
+	 * @return shared engine
+	 * @throws IllegalArgumentException if the list is missing or has no words
+	 */
+	public static GameEngine forWordList(String wordListPath, int numGuesses) {
+		GameEngine base = ENGINES.computeIfAbsent(wordListPath, path -> {
+			WordDictionary dictionary = WordDictionary.load(path);
+			// Thrown before anything is cached, so a list added later is still read
+			if (dictionary.size() == 0) {
+				throw new IllegalArgumentException(NO_WORDS_ERROR_TEXT + path);
+			}
+			return new GameEngine(dictionary, DEFAULT_NUM_GUESSES, path, null);
+		});
+		if (numGuesses == DEFAULT_NUM_GUESSES) {
+			return base;
+		}
+		return ENGINES.computeIfAbsent(wordListPath + '#' + numGuesses,
+				key -> new GameEngine(base.dictionary, numGuesses, wordListPath, base));
+	}
+
+	/**
+	 * Gets the engine for a word length and number of guesses, each length
+	 * read from its own word list
+	 *
+	 * @param number of letters in a word
+	 * @param number of guesses in a game
+	 * @return shared engine
+	 * @throws IllegalArgumentException if the list for the length is missing or has no words
+	 */
+	public static GameEngine forWordLength(int wordLength, int numGuesses) {
+		return forWordList(wordListPathFor(wordLength), numGuesses);
+	}
+
+	/**
+	 * Checks if there is a word list for a word length
+	 *
+	 * @param number of letters in a word
+	 * @return true if its list is a file or on the classpath
+	 */
+	public static boolean hasWordList(int wordLength) {
+		return WordDictionary.exists(wordListPathFor(wordLength));
+	}
+
+	/**
+	 * Gets the word list for a word length, such as resources/word_list_7.txt
+	 * for seven letters and resources/word_list.txt for five
+	 *
+	 * @param number of letters in a word
+	 * @return path of the word list file
+	 */
+	public static String wordListPathFor(int wordLength) {
+		return wordLength == WordDictionary.DEFAULT_WORD_LENGTH ? WORD_LIST_PREFIX + WORD_LIST_SUFFIX
+				: WORD_LIST_PREFIX + '_' + wordLength + WORD_LIST_SUFFIX;
+	}
+
+	/**
+	 * Starts a game with a random secret word
+	 *
+	 * @return new session
+	 */
+	public GameSession newSession() {
+		return new GameSession(this, getRandomIndex());
+	}
+
+	/**
+	 * Starts a game with a chosen secret word
+	 *
+	 * @param index of the secret word in the dictionary
+	 * @return new session
+	 */
+	public GameSession newSession(int secretIndex) {
+		return new GameSession(this, secretIndex);
+	}
+
+	/**
+	 * Starts a game on several boards at once, each with its own random
+	 * secret word
+	 *
+	 * @param number of boards from 1 to MAX_NUM_BOARDS
+	 * @return new session
+	 */
+	public GameSession newMultiBoardSession(int numBoards) {
+		return new GameSession(this, getRandomIndices(numBoards));
+	}
+
+	/**
+	 * Starts a game on several boards at once with chosen secret words
+	 *
+	 * @param indexes of the secret words in the dictionary, one per board
+	 * @return new session
+	 */
+	public GameSession newMultiBoardSession(int[] secretIndices) {
+		return new GameSession(this, secretIndices.clone());
+	}
+
+	/**
+	 * Gets the default number of guesses for a number of boards, one more
+	 * than the boards for every extra guess a single board gets
+	 *
+	 * @param number of boards
+	 * @return number of guesses
+	 */
+	public static int defaultNumGuesses(int numBoards) {
+		return numBoards == 1 ? DEFAULT_NUM_GUESSES : numBoards + EXTRA_MULTI_BOARD_GUESSES;
+	}
+
+	/**
+	 * Gets random indexes into the dictionary, all different while the
+	 * dictionary has enough words
+	 *
+	 * @param number of indexes from 1 to MAX_NUM_BOARDS
+	 * @return indexes of words
+	 */
+	public int[] getRandomIndices(int count) {
+		if (count < 1 || count > MAX_NUM_BOARDS) {
+			throw new IllegalArgumentException(NUM_BOARDS_ERROR_TEXT + count);
+		}
+		int[] indices = new int[count];
+		for (int i = 0; i < count; i++) {
+			int index;
+			boolean repeated;
+			do {
+				index = getRandomIndex();
+				repeated = false;
+				for (int j = 0; j < i && i < dictionary.size(); j++) {
+					repeated |= indices[j] == index;
+				}
+			} while (repeated);
+			indices[i] = index;
+		}
+		return indices;
+	}
+
+	/**
+	 * Gets a random index into the dictionary
+	 *
+	 * @return index of a word
+	 */
+	public int getRandomIndex() {
+		return ThreadLocalRandom.current().nextInt(dictionary.size());
+	}
+
+	/**
+	 * Validates a guess based on if its in the word list
+	 *
+	 * @param packed guess
+	 * @return if the guess is in the word list
+	 */
+	public boolean isInWordList(long guess) {
+		return dictionary.contains(guess);
+	}
+
+	/**
+	 * Checks a guess against a secret word
+	 *
+	 * @param packed guess
+	 * @param packed secret word
+	 * @return result from 0 to 3^length - 1
+	 */
+	public int checkGuess(long guess, long secret) {
+		return Feedback.score(guess, secret, dictionary.getWordLength());
+	}
+
+	/**
+	 * Checks a guess against the secret words of several boards in one pass
+	 *
+	 * @param packed guess
+	 * @param packed secret words, one per board
+	 * @param bit mask of the boards still being played
+	 * @param scratch space of two longs per board
+	 * @param results, one per board from the offset
+	 * @param offset of the first board's result
+	 */
+	public void checkGuess(long guess, long[] secrets, int boards, long[] counts, int[] results, int offset) {
+		Feedback.score(guess, secrets, boards, dictionary.getWordLength(), counts, results, offset);
+	}
+
+	/**
+	 * Gets the dictionary shared by every session
+	 *
+	 * @return dictionary
+	 */
+	public WordDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Gets the results of every word against every other word, building
+	 * or mapping the table the first time it is asked for
+	 *
+	 * @return feedback matrix
+	 */
+	public FeedbackMatrix getFeedbackMatrix() {
+		if (tables != this) {
+			return tables.getFeedbackMatrix();
+		}
+		FeedbackMatrix matrix = feedbackMatrix;
+		if (matrix == null) {
+			synchronized (this) {
+				matrix = feedbackMatrix;
+				if (matrix == null) {
+					matrix = wordListPath != null ? FeedbackMatrix.open(dictionary, wordListPath)
+							: FeedbackMatrix.compute(dictionary);
+					feedbackMatrix = matrix;
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Gets the letter bitsets over the dictionary, building them the first
+	 * time they are asked for
+	 *
+	 * @return candidate index
+	 */
+	public CandidateIndex getCandidateIndex() {
+		if (tables != this) {
+			return tables.getCandidateIndex();
+		}
+		CandidateIndex index = candidateIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = candidateIndex;
+				if (index == null) {
+					index = new CandidateIndex(dictionary);
+					candidateIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the adversary for games where the secret word is never fixed,
+	 * building it the first time it is asked for
+	 *
+	 * @return adversary
+	 */
+	public Adversary getAdversary() {
+		if (tables != this) {
+			return tables.getAdversary();
+		}
+		Adversary chooser = adversary;
+		if (chooser == null) {
+			synchronized (this) {
+				chooser = adversary;
+				if (chooser == null) {
+					chooser = new Adversary(dictionary);
+					adversary = chooser;
+				}
+			}
+		}
+		return chooser;
+	}
+
+	/**
+	 * Gets the number of guesses in a game
+	 *
+	 * @return number of guesses
+	 */
+	public int getNumGuesses() {
+		return numGuesses;
+	}
+
+	/**
+	 * Gets the number of letters in a word
+	 *
+	 * @return word length
+	 */
+	public int getWordLength() {
+		return dictionary.getWordLength();
+	}
+
+}
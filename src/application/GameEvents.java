@@ -0,0 +1,97 @@
+package application;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the hot paths of the game and its view.
+ * They cost almost nothing unless a recording is running, for example one
+ * started with -XX:StartFlightRecording or from Mission Control.
+ *
+ * @author Max Morhardt
+ */
+final class GameEvents {
+
+	// Category shown in Mission Control
+	private static final String CATEGORY = "Wordle";
+
+	/**
+	 * Holder for the event classes
+	 */
+	private GameEvents() {
+	}
+
+	/**
+	 * Reading and parsing a word list
+	 */
+	@Name("application.DictionaryLoad")
+	@Label("Dictionary Load")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class DictionaryLoad extends Event {
+		@Label("Path")
+		String path;
+
+		@Label("Source")
+		@Description("Classpath binary, classpath text, or file")
+		String source;
+
+		@Label("Words")
+		int words;
+	}
+
+	/**
+	 * Validating and scoring one guess
+	 */
+	@Name("application.Guess")
+	@Label("Guess")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class Guess extends Event {
+		@Label("Guess")
+		String guess;
+
+		@Label("Valid")
+		@Description("If the guess was in the word list")
+		boolean valid;
+
+		@Label("Result")
+		String result;
+	}
+
+	/**
+	 * Repainting the grid or keyboard after a guess
+	 */
+	@Name("application.Repaint")
+	@Label("Repaint")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class Repaint extends Event {
+		@Label("Target")
+		@Description("Grid or keyboard")
+		String target;
+
+		@Label("Row")
+		int row;
+	}
+
+	/**
+	 * Showing the end of a game
+	 */
+	@Name("application.EndGame")
+	@Label("End Game")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class EndGame extends Event {
+		@Label("Won")
+		boolean won;
+
+		@Label("Guesses")
+		int guesses;
+	}
+
+}
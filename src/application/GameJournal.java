@@ -0,0 +1,379 @@
+package application;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append only log of finished and abandoned games. Each game is one fixed
+ * size JournalRecord written into a memory mapped segment file, so recording
+ * a game is a handful of stores into memory and never waits on the disk.
+ * Segments are numbered files in one folder and a new one is started when
+ * the last is full. Only one journal at a time may append to a folder: an
+ * open journal holds an exclusive lock on a lock file in it, so a second
+ * game or server on the same folder fails to open it instead of writing
+ * over the same slots.
+ *
+ * Added to a session as a listener, it records the game when it ends.
+ *
+ * Usage: GameJournal [journal folder]
+ *
+ * @author Max Morhardt
+ */
+public final class GameJournal implements GameListener, AutoCloseable {
+
+	// Default folder for the game and server
+	public static final String DEFAULT_DIRECTORY = "journal";
+
+	// Segment files
+	private static final String SEGMENT_PREFIX = "journal-";
+	private static final String SEGMENT_SUFFIX = ".wgj";
+	private static final int MAGIC = 0x57474A4C;
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 16;
+	private static final String LOCK_FILE_NAME = "journal.lock";
+	public static final int RECORDS_PER_SEGMENT = 1 << 16;
+	private static final long SEGMENT_SIZE = HEADER_SIZE + (long) RECORDS_PER_SEGMENT * JournalRecord.SIZE;
+
+	// Error text
+	private static final String BAD_SEGMENT_TEXT = "Not a game journal segment: ";
+	private static final String LOCKED_TEXT = "The game journal is already open in another game or server: ";
+
+	private final Path directory;
+	// Channel of the lock file, closing it releases the lock
+	private FileChannel lockChannel;
+	private MappedByteBuffer segment;
+	private int segmentNumber;
+	private int nextSlot;
+
+	/**
+	 * Constructor
+	 *
+	 * @param folder holding the segments
+	 */
+	private GameJournal(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Opens a journal for appending after the games already in it, creating
+	 * the folder if needed. The folder stays locked until the journal is
+	 * closed.
+	 *
+	 * @param folder holding the segments
+	 * @return journal
+	 * @throws IOException if the folder is locked by another journal, or a
+	 *         segment could not be read or mapped
+	 */
+	public static GameJournal open(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		GameJournal journal = new GameJournal(directory);
+		journal.lock();
+		try {
+			Path[] segments = listSegments(directory);
+			if (segments.length == 0) {
+				journal.mapSegment(0);
+			} else {
+				Path last = segments[segments.length - 1];
+				journal.mapSegment(segmentNumber(last));
+				// Resume after the last game written
+				int slot = RECORDS_PER_SEGMENT;
+				while (slot > 0 && journal.segment.get(slotOffset(slot - 1)) == JournalRecord.EMPTY) {
+					slot--;
+				}
+				journal.nextSlot = slot;
+			}
+		} catch (IOException e) {
+			journal.close();
+			throw e;
+		}
+		return journal;
+	}
+
+	/**
+	 * Takes the exclusive lock on the folder, held until the journal is closed
+	 *
+	 * @throws IOException if another journal holds it or the lock file could not be opened
+	 */
+	private void lock() throws IOException {
+		Path path = directory.resolve(LOCK_FILE_NAME);
+		lockChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock lock;
+		try {
+			// Null when another process holds the lock, and an exception when this one does
+			lock = lockChannel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			lock = null;
+		}
+		if (lock == null) {
+			lockChannel.close();
+			lockChannel = null;
+			throw new IOException(LOCKED_TEXT + directory.toAbsolutePath());
+		}
+	}
+
+	/**
+	 * Records a game when it is won or lost
+	 */
+	@Override
+	public void gameEnded(GameSession session) {
+		append(session, session.isWon() ? JournalRecord.WON : JournalRecord.LOST);
+	}
+
+	/**
+	 * Records a game that was left before it ended, skipping games with no
+	 * guesses
+	 *
+	 * @param session left in progress
+	 */
+	public void appendAbandoned(GameSession session) {
+		if (session.isOver() || session.getGuessCount() == 0) return;
+		append(session, JournalRecord.ABANDONED);
+	}
+
+	/**
+	 * Writes one record at the end of the journal for a game on one board
+	 *
+	 * @param session to record
+	 * @param outcome of the game
+	 */
+	public synchronized void append(GameSession session, byte outcome) {
+		// Records hold one secret word, so games on several boards are not kept
+		if (segment == null || session.getBoardCount() != 1) return;
+		if (nextSlot == RECORDS_PER_SEGMENT) {
+			try {
+				segment.force();
+				mapSegment(segmentNumber + 1);
+			} catch (IOException e) {
+				e.printStackTrace();
+				segment = null;
+				return;
+			}
+		}
+		int offset = slotOffset(nextSlot++);
+		int count = Math.min(session.getGuessCount(), JournalRecord.MAX_GUESSES);
+		MappedByteBuffer buffer = segment;
+		buffer.put(offset + JournalRecord.GUESS_COUNT_OFFSET, (byte) count);
+		buffer.put(offset + JournalRecord.WORD_LENGTH_OFFSET, (byte) session.getEngine().getWordLength());
+		buffer.putLong(offset + JournalRecord.SECRET_OFFSET, session.getSecret());
+		buffer.putLong(offset + JournalRecord.START_OFFSET, session.getStartMillis());
+		buffer.putLong(offset + JournalRecord.END_OFFSET, System.currentTimeMillis());
+		for (int i = 0; i < count; i++) {
+			buffer.putLong(offset + JournalRecord.GUESSES_OFFSET + i * Long.BYTES, session.getGuess(i));
+			buffer.putInt(offset + JournalRecord.GUESS_MILLIS_OFFSET + i * Integer.BYTES, session.getGuessMillis(i));
+			buffer.putInt(offset + JournalRecord.RESULTS_OFFSET + i * Integer.BYTES, session.getResult(i));
+		}
+		// The outcome goes last, so a slot is only counted once it is whole
+		buffer.put(offset + JournalRecord.OUTCOME_OFFSET, outcome);
+	}
+
+	/**
+	 * Flushes the open segment to disk, stops recording, and unlocks the folder
+	 */
+	@Override
+	public synchronized void close() {
+		if (segment != null) {
+			segment.force();
+			segment = null;
+		}
+		if (lockChannel != null) {
+			try {
+				lockChannel.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			lockChannel = null;
+		}
+	}
+
+	/**
+	 * Reads every game in a journal in the order they were recorded
+	 *
+	 * @param folder holding the segments
+	 * @param callback for each game, handed one reused record
+	 * @return number of games read
+	 * @throws IOException if a segment could not be read
+	 */
+	public static long scan(Path directory, Consumer<JournalRecord> callback) throws IOException {
+		JournalRecord record = new JournalRecord();
+		long count = 0;
+		for (Path path : listSegments(directory)) {
+			count += scanSegment(path, record, callback);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the most recent game in a journal
+	 *
+	 * @param folder holding the segments
+	 * @return copy of the record or null if the journal is empty
+	 * @throws IOException if a segment could not be read
+	 */
+	public static JournalRecord readLast(Path directory) throws IOException {
+		JournalRecord[] last = new JournalRecord[1];
+		Path[] segments = listSegments(directory);
+		// Only the last segment with a game in it needs reading
+		for (int i = segments.length - 1; i >= 0 && last[0] == null; i--) {
+			scanSegment(segments[i], new JournalRecord(), record -> last[0] = record);
+		}
+		return last[0] == null ? null : last[0].copy();
+	}
+
+	/**
+	 * Reads every game in one segment
+	 *
+	 * @param segment file
+	 * @param record to point at each game
+	 * @param callback for each game
+	 * @return number of games read
+	 * @throws IOException if the segment could not be read
+	 */
+	private static int scanSegment(Path path, JournalRecord record, Consumer<JournalRecord> callback)
+			throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), SEGMENT_SIZE));
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		checkHeader(buffer, path);
+		int slot = 0;
+		while (slot < RECORDS_PER_SEGMENT) {
+			int offset = slotOffset(slot);
+			if (offset + JournalRecord.SIZE > buffer.limit() || buffer.get(offset) == JournalRecord.EMPTY) break;
+			record.moveTo(buffer, offset);
+			callback.accept(record);
+			slot++;
+		}
+		return slot;
+	}
+
+	/**
+	 * Maps a segment for writing, creating it with a header if it is new
+	 *
+	 * @param number of the segment
+	 * @throws IOException if the segment could not be mapped
+	 */
+	private void mapSegment(int number) throws IOException {
+		Path path = directory.resolve(segmentName(number));
+		boolean created = !Files.exists(path);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+		}
+		segment.order(ByteOrder.LITTLE_ENDIAN);
+		if (created) {
+			segment.putInt(0, MAGIC);
+			segment.putInt(4, VERSION);
+			segment.putInt(8, JournalRecord.SIZE);
+			segment.putInt(12, RECORDS_PER_SEGMENT);
+		} else {
+			checkHeader(segment, path);
+		}
+		segmentNumber = number;
+		nextSlot = 0;
+	}
+
+	/**
+	 * Checks a segment was written by this version of the journal
+	 *
+	 * @param buffer of the segment
+	 * @param path of the segment, for the error
+	 * @throws IOException if the header does not match
+	 */
+	private static void checkHeader(MappedByteBuffer buffer, Path path) throws IOException {
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getInt(8) != JournalRecord.SIZE) {
+			throw new IOException(BAD_SEGMENT_TEXT + path);
+		}
+	}
+
+	/**
+	 * Lists the segments of a journal in order
+	 *
+	 * @param folder holding the segments
+	 * @return segment files, empty if the folder does not exist
+	 * @throws IOException if the folder could not be listed
+	 */
+	private static Path[] listSegments(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) return new Path[0];
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> {
+				String name = path.getFileName().toString();
+				return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+			}).sorted().collect(Collectors.toList()).toArray(new Path[0]);
+		}
+	}
+
+	/**
+	 * Gets the file name of a segment, zero padded so names sort in order
+	 *
+	 * @param number of the segment
+	 * @return file name
+	 */
+	private static String segmentName(int number) {
+		return String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+	}
+
+	/**
+	 * Gets the number of a segment from its file name
+	 *
+	 * @param segment file
+	 * @return number
+	 */
+	private static int segmentNumber(Path path) {
+		String name = path.getFileName().toString();
+		return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	/**
+	 * Gets where a record starts in its segment
+	 *
+	 * @param slot of the record
+	 * @return byte offset
+	 */
+	private static int slotOffset(int slot) {
+		return HEADER_SIZE + slot * JournalRecord.SIZE;
+	}
+
+	/**
+	 * Main method, rebuilds statistics from every game in a journal
+	 *
+	 * @param args journal folder
+	 * @throws IOException if the journal could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		Path directory = Paths.get(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+		long[] outcomes = new long[JournalRecord.ABANDONED + 1];
+		long[] distribution = new long[JournalRecord.MAX_GUESSES + 1];
+		long start = System.nanoTime();
+		long count = scan(directory, record -> {
+			outcomes[record.getOutcome()]++;
+			if (record.getOutcome() == JournalRecord.WON) {
+				distribution[record.getGuessCount()]++;
+			}
+		});
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf(Locale.ROOT, "Games: %d read in %.3f s (%.0f games/s)%n", count, seconds,
+				seconds > 0 ? count / seconds : 0.0);
+		System.out.printf(Locale.ROOT, "Won: %d, lost: %d, abandoned: %d%n", outcomes[JournalRecord.WON],
+				outcomes[JournalRecord.LOST], outcomes[JournalRecord.ABANDONED]);
+		for (int guesses = 1; guesses < distribution.length; guesses++) {
+			if (distribution[guesses] > 0) {
+				System.out.printf(Locale.ROOT, "%d: %d%n", guesses, distribution[guesses]);
+			}
+		}
+	}
+
+}
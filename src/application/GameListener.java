@@ -0,0 +1,48 @@
+package application;
+
+/**
+ * Receives changes to a game session as they happen, so views only redraw
+ * what changed. Every method does nothing by default.
+ *
+ * @author Max Morhardt
+ */
+public interface GameListener {
+
+	/**
+	 * Called when a letter is typed or removed, or the typed letters are cleared
+	 *
+	 * @param session that changed
+	 */
+	default void inputChanged(GameSession session) {
+	}
+
+	/**
+	 * Called when a guess is accepted and scored. Games on several boards
+	 * give the result on the first board and the rest are read from the
+	 * session.
+	 *
+	 * @param session that changed
+	 * @param row of the guess
+	 * @param packed guess
+	 * @param result on the first board from 0 to 3^length - 1
+	 */
+	default void guessSubmitted(GameSession session, int row, long guess, int result) {
+	}
+
+	/**
+	 * Called once when the game is won or lost
+	 *
+	 * @param session that ended
+	 */
+	default void gameEnded(GameSession session) {
+	}
+
+	/**
+	 * Called when the session starts over with a new secret word
+	 *
+	 * @param session that was reset
+	 */
+	default void gameReset(GameSession session) {
+	}
+
+}
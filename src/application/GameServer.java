@@ -0,0 +1,691 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server for playing many games at once with the same rules as
+ * the JavaFX game. Every request runs on its own virtual thread when the
+ * JVM has them, and on a cached thread pool otherwise.
+ *
+ * Endpoints:
+ *   POST /games                          starts a game
+ *   POST /games?hard=true                starts a game in hard mode
+ *   POST /games?adversarial=true         starts a game whose secret word is never fixed
+ *   POST /games?player=alice             starts a game ranked on the leaderboards for a player
+ *   POST /games/{id}/guesses?word=crane  submits a guess
+ *   GET  /games/{id}                     gets the state of a game
+ *   GET  /stats                          gets the session store counters
+ *   GET  /events                         streams the events of every game to a spectator, by watch id
+ *   GET  /events?policy=conflate         the same, keeping the latest events when behind
+ *   GET  /leaderboard?category=fastest_solve&k=10&word=crane
+ *                                        gets the top players, over every word or at one
+ *
+ * Usage: GameServer [port] [word list path]
+ *
+ * @author Max Morhardt
+ */
+public final class GameServer {
+
+	// Defaults for the command line
+	private static final int DEFAULT_PORT = 8080;
+	private static final String DEFAULT_WORD_LIST_PATH = "resources/word_list.txt";
+
+	// JDK server setting that turns off Nagle's algorithm, read once by the first server in the JVM
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	// Session limits
+	public static final int DEFAULT_MAX_SESSIONS = 100_000;
+	public static final long DEFAULT_IDLE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+	private static final long SWEEP_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	// Paths and parameters
+	private static final String GAMES_PATH = "/games";
+	private static final String GUESSES_PATH = "/guesses";
+	private static final String STATS_PATH = "/stats";
+	private static final String EVENTS_PATH = "/events";
+	private static final String LEADERBOARD_PATH = "/leaderboard";
+	private static final String WORD_PARAMETER = "word=";
+	private static final String HARD_MODE_PARAMETER = "hard=true";
+	private static final String ADVERSARIAL_PARAMETER = "adversarial=true";
+	private static final String CONFLATE_PARAMETER = "policy=conflate";
+	private static final String PLAYER_PARAMETER = "player";
+	private static final String CATEGORY_PARAMETER = "category";
+	private static final String TOP_PARAMETER = "k";
+	private static final String LEADERBOARD_WORD_PARAMETER = "word";
+
+	// Leaderboard queries
+	private static final int DEFAULT_TOP = 10;
+	private static final int MAX_TOP = 100;
+	private static final int MAX_PLAYER_LENGTH = 32;
+
+	// HTTP constants
+	private static final String GET = "GET";
+	private static final String POST = "POST";
+	private static final int OK = 200;
+	private static final int CREATED = 201;
+	private static final int BAD_REQUEST = 400;
+	private static final int NOT_FOUND = 404;
+	private static final int METHOD_NOT_ALLOWED = 405;
+	private static final int CONFLICT = 409;
+	private static final int UNPROCESSABLE = 422;
+	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String JSON_TYPE = "application/json";
+	private static final String EVENT_STREAM_TYPE = "text/event-stream";
+	private static final String CACHE_CONTROL = "Cache-Control";
+	private static final String NO_CACHE = "no-cache";
+	private static final int CHUNKED = 0;
+	private static final int BACKLOG = 1024;
+
+	// Error text
+	private static final String NOT_FOUND_TEXT = "{\"error\":\"not found\"}";
+	private static final String METHOD_NOT_ALLOWED_TEXT = "{\"error\":\"method not allowed\"}";
+	private static final String MISSING_WORD_TEXT = "{\"error\":\"missing word\"}";
+	private static final String NOT_IN_WORD_LIST_TEXT = "{\"error\":\"not in word list\"}";
+	private static final String GAME_OVER_TEXT = "{\"error\":\"game is over\"}";
+	private static final String HARD_MODE_TEXT = "{\"error\":\"guess does not use every hint\"}";
+	private static final String INVALID_PLAYER_TEXT = "{\"error\":\"players are 1 to 32 letters, digits, - or _\"}";
+	private static final String INVALID_LEADERBOARD_TEXT = "{\"error\":\"unknown category, k, or word\"}";
+
+	private final GameEngine engine;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final SessionStore sessions;
+	private final GameJournal journal;
+	private final ScheduledExecutorService sweeper;
+	private final SpectatorFeed spectators;
+	// Makes the ids spectators see games by, which cannot be turned into the ids that play them
+	private final SecureRandom watchIds = new SecureRandom();
+	private final Leaderboard leaderboard;
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine to play games with
+	 * @param port to listen on
+	 * @throws IOException if the port could not be bound
+	 */
+	public GameServer(GameEngine engine, int port) throws IOException {
+		this(engine, port, new SessionStore(DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TTL_MILLIS));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine to play games with
+	 * @param port to listen on
+	 * @param store to hold games in progress
+	 * @throws IOException if the port could not be bound
+	 */
+	public GameServer(GameEngine engine, int port, SessionStore sessions) throws IOException {
+		this(engine, port, sessions, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine to play games with
+	 * @param port to listen on
+	 * @param store to hold games in progress
+	 * @param journal to record finished and abandoned games in, or null
+	 * @throws IOException if the port could not be bound
+	 */
+	public GameServer(GameEngine engine, int port, SessionStore sessions, GameJournal journal) throws IOException {
+		this(engine, port, sessions, journal, new Leaderboard());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine to play games with
+	 * @param port to listen on
+	 * @param store to hold games in progress
+	 * @param journal to record finished and abandoned games in, or null
+	 * @param leaderboard to rank players' finished games on
+	 * @throws IOException if the port could not be bound
+	 */
+	public GameServer(GameEngine engine, int port, SessionStore sessions, GameJournal journal, Leaderboard leaderboard)
+			throws IOException {
+		this.engine = engine;
+		this.leaderboard = leaderboard;
+		this.sessions = sessions;
+		this.journal = journal;
+		if (journal != null) {
+			// Games evicted before they end were abandoned
+			sessions.setEvictionListener(session -> {
+				synchronized (session) {
+					journal.appendAbandoned(session);
+				}
+			});
+		}
+		this.executor = newRequestExecutor();
+		// Spectators are written to on request threads, so a slow one only holds up its own
+		this.spectators = new SpectatorFeed(executor);
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "session-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+		server.setExecutor(executor);
+		server.createContext(GAMES_PATH, this::handle);
+		server.createContext(STATS_PATH, this::handleStats);
+		server.createContext(EVENTS_PATH, this::handleEvents);
+		server.createContext(LEADERBOARD_PATH, this::handleLeaderboard);
+	}
+
+	/**
+	 * Starts accepting requests and sweeping out idle games
+	 */
+	public void start() {
+		Metrics.registerMBean();
+		server.start();
+		sweeper.scheduleWithFixedDelay(sessions::evictExpired, SWEEP_PERIOD_MILLIS, SWEEP_PERIOD_MILLIS,
+				TimeUnit.MILLISECONDS);
+		sweeper.scheduleWithFixedDelay(leaderboard::refresh, leaderboard.getRefreshMillis(),
+				leaderboard.getRefreshMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops accepting requests and waits up to a second for open ones
+	 */
+	public void stop() {
+		spectators.close();
+		server.stop(1);
+		sweeper.shutdownNow();
+		executor.shutdown();
+		if (journal != null) {
+			journal.close();
+		}
+		Metrics.get().dumpIfRequested();
+	}
+
+	/**
+	 * Gets the store holding games in progress
+	 *
+	 * @return session store
+	 */
+	public SessionStore getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * Gets the feed spectators watch every game through
+	 *
+	 * @return spectator feed
+	 */
+	public SpectatorFeed getSpectators() {
+		return spectators;
+	}
+
+	/**
+	 * Gets the leaderboards players' finished games are ranked on
+	 *
+	 * @return leaderboard
+	 */
+	public Leaderboard getLeaderboard() {
+		return leaderboard;
+	}
+
+	/**
+	 * Gets the port the server is listening on
+	 *
+	 * @return port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Creates an executor that runs each request on a new virtual thread,
+	 * falling back to a cached thread pool on JVMs without them
+	 *
+	 * @return executor
+	 */
+	static ExecutorService newRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Routes a request under /games
+	 *
+	 * @param exchange
+	 * @throws IOException if the response could not be sent
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			drain(exchange.getRequestBody());
+			URI uri = exchange.getRequestURI();
+			String path = uri.getPath();
+			String method = exchange.getRequestMethod();
+			if (path.equals(GAMES_PATH) || path.equals(GAMES_PATH + "/")) {
+				if (!method.equals(POST)) {
+					send(exchange, METHOD_NOT_ALLOWED, METHOD_NOT_ALLOWED_TEXT);
+					return;
+				}
+				newGame(exchange, uri.getRawQuery());
+				return;
+			}
+			// Either /games/{id} or /games/{id}/guesses
+			String rest = path.substring(GAMES_PATH.length() + 1);
+			boolean guessing = rest.endsWith(GUESSES_PATH);
+			String idText = guessing ? rest.substring(0, rest.length() - GUESSES_PATH.length()) : rest;
+			GameSession session = findSession(idText);
+			if (session == null) {
+				send(exchange, NOT_FOUND, NOT_FOUND_TEXT);
+			} else if (guessing && method.equals(POST)) {
+				guess(exchange, session, uri.getRawQuery());
+			} else if (!guessing && method.equals(GET)) {
+				synchronized (session) {
+					send(exchange, OK, stateJson(idText, session));
+				}
+			} else {
+				send(exchange, METHOD_NOT_ALLOWED, METHOD_NOT_ALLOWED_TEXT);
+			}
+		}
+	}
+
+	/**
+	 * Sends the session store counters
+	 *
+	 * @param exchange
+	 * @throws IOException if the response could not be sent
+	 */
+	private void handleStats(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			drain(exchange.getRequestBody());
+			if (!exchange.getRequestMethod().equals(GET)) {
+				send(exchange, METHOD_NOT_ALLOWED, METHOD_NOT_ALLOWED_TEXT);
+				return;
+			}
+			send(exchange, OK, "{\"sessions\":" + sessions.size() + ",\"hits\":" + sessions.getHits()
+					+ ",\"misses\":" + sessions.getMisses() + ",\"evictions\":" + sessions.getEvictions() + "}");
+		}
+	}
+
+	/**
+	 * Streams the events of every game as server-sent events until the
+	 * spectator disconnects or the server stops. The exchange is left open
+	 * and written to by the spectator feed.
+	 *
+	 * @param exchange
+	 * @throws IOException if the response could not be started
+	 */
+	private void handleEvents(HttpExchange exchange) throws IOException {
+		drain(exchange.getRequestBody());
+		if (!exchange.getRequestMethod().equals(GET)) {
+			try (exchange) {
+				send(exchange, METHOD_NOT_ALLOWED, METHOD_NOT_ALLOWED_TEXT);
+			}
+			return;
+		}
+		SpectatorFeed.OverflowPolicy policy = hasParameter(exchange.getRequestURI().getRawQuery(), CONFLATE_PARAMETER)
+				? SpectatorFeed.OverflowPolicy.CONFLATE
+				: SpectatorFeed.OverflowPolicy.DROP;
+		exchange.getResponseHeaders().set(CONTENT_TYPE, EVENT_STREAM_TYPE);
+		exchange.getResponseHeaders().set(CACHE_CONTROL, NO_CACHE);
+		exchange.sendResponseHeaders(OK, CHUNKED);
+		spectators.subscribe(new EventStream(exchange), SpectatorFeed.DEFAULT_BUFFER_SIZE, policy);
+	}
+
+	/**
+	 * Sends the top players from the last leaderboard snapshot
+	 *
+	 * @param exchange
+	 * @throws IOException if the response could not be sent
+	 */
+	private void handleLeaderboard(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			drain(exchange.getRequestBody());
+			if (!exchange.getRequestMethod().equals(GET)) {
+				send(exchange, METHOD_NOT_ALLOWED, METHOD_NOT_ALLOWED_TEXT);
+				return;
+			}
+			String query = exchange.getRequestURI().getRawQuery();
+			String categoryText = parameterValue(query, CATEGORY_PARAMETER);
+			String topText = parameterValue(query, TOP_PARAMETER);
+			String wordText = parameterValue(query, LEADERBOARD_WORD_PARAMETER);
+			LeaderboardSnapshot.Category category;
+			int top;
+			try {
+				category = categoryText == null ? LeaderboardSnapshot.Category.FEWEST_GUESSES
+						: LeaderboardSnapshot.Category.valueOf(categoryText.toUpperCase(Locale.ROOT));
+				top = topText == null ? DEFAULT_TOP : Integer.parseInt(topText);
+			} catch (IllegalArgumentException e) {
+				send(exchange, BAD_REQUEST, INVALID_LEADERBOARD_TEXT);
+				return;
+			}
+			long secret = wordText == null ? WordDictionary.INVALID_WORD : parseWord(query, engine.getWordLength());
+			if (top < 0 || top > MAX_TOP || (wordText != null && secret == WordDictionary.INVALID_WORD)) {
+				send(exchange, BAD_REQUEST, INVALID_LEADERBOARD_TEXT);
+				return;
+			}
+			LeaderboardSnapshot snapshot = leaderboard.getSnapshot();
+			List<LeaderboardEntry> entries = wordText == null ? snapshot.top(category, top)
+					: snapshot.topForWord(secret, category, top);
+			StringBuilder json = new StringBuilder(64 + entries.size() * 160);
+			json.append("{\"category\":\"").append(category.name()).append("\",\"takenMillis\":")
+					.append(snapshot.getTakenMillis()).append(",\"players\":[");
+			for (int i = 0; i < entries.size(); i++) {
+				if (i > 0) json.append(',');
+				json.append(entries.get(i).toJson());
+			}
+			send(exchange, OK, json.append("]}").toString());
+		}
+	}
+
+	/**
+	 * Starts a game with a random secret word, in hard mode when the query
+	 * has hard=true and adversarial when it has adversarial=true
+	 *
+	 * @param exchange
+	 * @param query string, may be null
+	 * @throws IOException if the response could not be sent
+	 */
+	private void newGame(HttpExchange exchange, String query) throws IOException {
+		String player = parameterValue(query, PLAYER_PARAMETER);
+		if (player != null && !isValidPlayer(player)) {
+			send(exchange, BAD_REQUEST, INVALID_PLAYER_TEXT);
+			return;
+		}
+		GameSession session = engine.newSession();
+		boolean hardMode = hasParameter(query, HARD_MODE_PARAMETER);
+		boolean adversarial = hasParameter(query, ADVERSARIAL_PARAMETER);
+		session.setHardMode(hardMode);
+		session.setAdversarial(adversarial);
+		if (journal != null) {
+			session.addListener(journal);
+		}
+		if (player != null) {
+			session.addListener(leaderboard.recorder(player));
+		}
+		long id = sessions.add(session);
+		// Spectators never see the game's id, since it is all it takes to guess in the game
+		long watchId = watchIds.nextLong() >>> 1;
+		spectators.watch(watchId, session);
+		send(exchange, CREATED, "{\"id\":\"" + id + "\",\"watchId\":\"" + watchId + "\",\"wordLength\":"
+				+ engine.getWordLength() + ",\"maxGuesses\":" + engine.getNumGuesses() + ",\"hard\":" + hardMode
+				+ ",\"adversarial\":" + adversarial + "}");
+	}
+
+	/**
+	 * Submits a guess to a game
+	 *
+	 * @param exchange
+	 * @param session being played
+	 * @param query string holding the word
+	 * @throws IOException if the response could not be sent
+	 */
+	private void guess(HttpExchange exchange, GameSession session, String query) throws IOException {
+		long guess = parseWord(query, engine.getWordLength());
+		if (guess == WordDictionary.INVALID_WORD) {
+			send(exchange, BAD_REQUEST, MISSING_WORD_TEXT);
+			return;
+		}
+		int result;
+		String status;
+		int guessCount;
+		synchronized (session) {
+			if (session.isOver()) {
+				send(exchange, CONFLICT, GAME_OVER_TEXT);
+				return;
+			}
+			result = session.submitGuess(guess);
+			status = session.getStatus().name();
+			guessCount = session.getGuessCount();
+		}
+		if (result == GameSession.NOT_SUBMITTED) {
+			send(exchange, UNPROCESSABLE, NOT_IN_WORD_LIST_TEXT);
+			return;
+		}
+		if (result == GameSession.HARD_MODE_REJECTED) {
+			send(exchange, UNPROCESSABLE, HARD_MODE_TEXT);
+			return;
+		}
+		send(exchange, OK, "{\"result\":\"" + Feedback.toString(result, engine.getWordLength()) + "\",\"code\":"
+				+ result + ",\"status\":\"" + status + "\",\"guessCount\":" + guessCount + "}");
+	}
+
+	/**
+	 * Writes the state of a game, revealing the secret word once it is over
+	 *
+	 * @param id of the game
+	 * @param session
+	 * @return json
+	 */
+	private String stateJson(String id, GameSession session) {
+		StringBuilder json = new StringBuilder(128);
+		json.append("{\"id\":\"").append(id).append("\",\"status\":\"").append(session.getStatus().name())
+				.append("\",\"guesses\":[");
+		for (int i = 0; i < session.getGuessCount(); i++) {
+			if (i > 0) json.append(',');
+			json.append("{\"word\":\"").append(WordDictionary.unpack(session.getGuess(i), engine.getWordLength()))
+					.append("\",\"result\":\"").append(Feedback.toString(session.getResult(i), engine.getWordLength()))
+					.append("\"}");
+		}
+		json.append(']');
+		if (session.isOver()) {
+			json.append(",\"secret\":\"").append(session.getSecretWord()).append('"');
+		}
+		return json.append('}').toString();
+	}
+
+	/**
+	 * Finds a game by its id
+	 *
+	 * @param id text from the path
+	 * @return session or null if there is no such game or it was evicted
+	 */
+	private GameSession findSession(String idText) {
+		try {
+			return sessions.get(Long.parseLong(idText));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the word parameter out of a query string
+	 *
+	 * @param query string
+	 * @param number of letters the word must have
+	 * @return packed word or INVALID_WORD
+	 */
+	private static long parseWord(String query, int wordLength) {
+		if (query == null) return WordDictionary.INVALID_WORD;
+		int start = query.indexOf(WORD_PARAMETER);
+		if (start < 0 || (start > 0 && query.charAt(start - 1) != '&')) return WordDictionary.INVALID_WORD;
+		start += WORD_PARAMETER.length();
+		int end = query.indexOf('&', start);
+		if (end < 0) end = query.length();
+		if (end - start != wordLength) return WordDictionary.INVALID_WORD;
+		return WordDictionary.pack(query.subSequence(start, end));
+	}
+
+	/**
+	 * Gets the value of a parameter in a query string
+	 *
+	 * @param query string, may be null
+	 * @param name of the parameter
+	 * @return value, or null if the parameter is missing
+	 */
+	private static String parameterValue(String query, String name) {
+		if (query == null) return null;
+		for (String parameter : query.split("&")) {
+			if (parameter.length() > name.length() && parameter.startsWith(name)
+					&& parameter.charAt(name.length()) == '=') {
+				return parameter.substring(name.length() + 1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks a player name only uses letters, digits, - and _, so it can be
+	 * written into json as it is
+	 *
+	 * @param name of the player
+	 * @return if the name is allowed
+	 */
+	private static boolean isValidPlayer(String player) {
+		if (player.isEmpty() || player.length() > MAX_PLAYER_LENGTH) return false;
+		for (int i = 0; i < player.length(); i++) {
+			char c = player.charAt(i);
+			if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != '-' && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks a query string has a parameter with a value
+	 *
+	 * @param query string, may be null
+	 * @param parameter and value, such as hard=true
+	 * @return if the parameter is in the query
+	 */
+	private static boolean hasParameter(String query, String parameterValue) {
+		if (query == null) return false;
+		for (String parameter : query.split("&")) {
+			if (parameter.equals(parameterValue)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Sends a json response
+	 *
+	 * @param exchange
+	 * @param status code
+	 * @param json body
+	 * @throws IOException if the response could not be sent
+	 */
+	private static void send(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set(CONTENT_TYPE, JSON_TYPE);
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Reads and discards a request body so the connection can be reused
+	 *
+	 * @param request body
+	 * @throws IOException if the body could not be read
+	 */
+	private static void drain(InputStream in) throws IOException {
+		in.transferTo(OutputStream.nullOutputStream());
+	}
+
+	/**
+	 * Sends small json responses without waiting on Nagle's algorithm, unless
+	 * -Dsun.net.httpserver.nodelay was given. Only has an effect before the
+	 * first server in the JVM is created, so command line tools call it first.
+	 */
+	static void enableNoDelay() {
+		if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+			System.setProperty(NO_DELAY_PROPERTY, "true");
+		}
+	}
+
+	/**
+	 * Main method
+	 *
+	 * @param args port and word list path
+	 * @throws IOException if the port could not be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		enableNoDelay();
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		String wordListPath = args.length > 1 ? args[1] : DEFAULT_WORD_LIST_PATH;
+		// Read the word list first, so a missing list stops the server before anything is opened
+		GameEngine engine = GameEngine.forWordList(wordListPath);
+		SessionStore sessions = new SessionStore(DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TTL_MILLIS);
+		GameJournal journal = GameJournal.open(Paths.get(GameJournal.DEFAULT_DIRECTORY));
+		GameServer server = new GameServer(engine, port, sessions, journal);
+		server.start();
+		// Stop cleanly on Ctrl+C so the metrics are dumped if asked for
+		Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+		System.out.println("Listening on http://localhost:" + server.getPort() + GAMES_PATH);
+	}
+
+	/**
+	 * Writes spectator events to one open response, one server-sent event
+	 * per game event. A write that fails means the spectator has gone, and
+	 * cancels the subscription.
+	 */
+	private static final class EventStream implements Flow.Subscriber<SpectatorEvent> {
+
+		// Framing of one server-sent event
+		private static final byte[] DATA_PREFIX = "data: ".getBytes(StandardCharsets.UTF_8);
+		private static final byte[] EVENT_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
+		private final HttpExchange exchange;
+		private final OutputStream out;
+		private Flow.Subscription subscription;
+
+		/**
+		 * Constructor
+		 *
+		 * @param exchange with its headers sent
+		 */
+		private EventStream(HttpExchange exchange) {
+			this.exchange = exchange;
+			this.out = exchange.getResponseBody();
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(SpectatorEvent event) {
+			try {
+				out.write(DATA_PREFIX);
+				out.write(event.toJson().getBytes(StandardCharsets.UTF_8));
+				out.write(EVENT_END);
+				out.flush();
+			} catch (IOException e) {
+				subscription.cancel();
+				exchange.close();
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			exchange.close();
+		}
+
+		@Override
+		public void onComplete() {
+			exchange.close();
+		}
+
+	}
+
+}
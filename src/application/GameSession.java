@@ -0,0 +1,646 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * State of one game: the secret word, the guesses made so far with their
+ * results, and the letters typed for the next guess. Sessions hold no view
+ * types and no copy of the word list, only a reference to their engine.
+ *
+ * A game can be played on several boards at once, each with its own secret
+ * word. Every guess is scored against all the boards not yet solved and the
+ * game is won once every board is.
+ *
+ * @author Max Morhardt
+ */
+public final class GameSession {
+
+	// Returned by submitGuess when a guess was not accepted, and when hard
+	// mode turned down a word in the list for not using every hint
+	public static final int NOT_SUBMITTED = -1;
+	public static final int HARD_MODE_REJECTED = -2;
+
+	// Returned by getSolvedRow for a board not solved yet
+	public static final int NOT_SOLVED = -1;
+
+	// Error text
+	private static final String BOARD_COUNT_ERROR_TEXT = "Secret words must be given for every board: ";
+	private static final String HARD_MODE_ERROR_TEXT = "Hard mode is only for games on one board";
+	private static final String ADVERSARIAL_ERROR_TEXT = "Adversarial games must have one board and no guesses yet";
+
+	// Shared by every session without listeners
+	private static final GameListener[] NO_LISTENERS = new GameListener[0];
+
+	/**
+	 * Progress of a game
+	 */
+	public enum Status {
+		IN_PROGRESS, WON, LOST
+	}
+
+	private final GameEngine engine;
+	private final long[] guesses;
+	// Results of each guess on every board, one row of boards after another
+	private final int[] results;
+	// Milliseconds from the start of the game to each guess
+	private final int[] guessMillis;
+	private long startMillis;
+	private final int[] secretIndices;
+	private final long[] secrets;
+	// Row each board was solved on, and a bit mask of the boards still being played
+	private final int[] solvedRows;
+	private int unsolved;
+	// Scratch space for scoring several boards, null with one board
+	private final long[] letterCounts;
+	private int guessCount;
+	private Status status;
+	// Letters typed for the next guess, packed like a word
+	private long input;
+	private int inputLength;
+	private GameListener[] listeners = NO_LISTENERS;
+	// Answers still possible on each board, only built once someone asks for them
+	private final CandidateSet[] candidates;
+	// Hints every guess must use, null unless playing in hard mode
+	private GuessConstraints constraints;
+	// Chooses each result when the secret word is never fixed, null for normal games
+	private Adversary adversary;
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine the game is played with
+	 * @param index of the secret word in the dictionary
+	 */
+	GameSession(GameEngine engine, int secretIndex) {
+		this(engine, new int[] { secretIndex });
+	}
+
+	/**
+	 * Constructor for a game on one board per secret word
+	 *
+	 * @param engine the game is played with
+	 * @param indexes of the secret words in the dictionary
+	 */
+	GameSession(GameEngine engine, int[] secretIndices) {
+		int numBoards = secretIndices.length;
+		this.engine = engine;
+		this.guesses = new long[engine.getNumGuesses()];
+		this.results = new int[engine.getNumGuesses() * numBoards];
+		this.guessMillis = new int[engine.getNumGuesses()];
+		this.secretIndices = new int[numBoards];
+		this.secrets = new long[numBoards];
+		this.solvedRows = new int[numBoards];
+		this.letterCounts = numBoards > 1 ? new long[2 * numBoards] : null;
+		this.candidates = new CandidateSet[numBoards];
+		reset(secretIndices);
+	}
+
+	/**
+	 * Starts over with random secret words
+	 */
+	public void reset() {
+		reset(engine.getRandomIndices(secrets.length));
+	}
+
+	/**
+	 * Starts over with a chosen secret word on a single board
+	 *
+	 * @param index of the secret word in the dictionary
+	 */
+	public void reset(int secretIndex) {
+		reset(new int[] { secretIndex });
+	}
+
+	/**
+	 * Starts over with chosen secret words
+	 *
+	 * @param indexes of the secret words in the dictionary, one per board
+	 */
+	public void reset(int[] secretIndices) {
+		if (secretIndices.length != secrets.length) {
+			throw new IllegalArgumentException(BOARD_COUNT_ERROR_TEXT + secrets.length);
+		}
+		for (int board = 0; board < secrets.length; board++) {
+			this.secretIndices[board] = secretIndices[board];
+			this.secrets[board] = engine.getDictionary().get(secretIndices[board]);
+			solvedRows[board] = NOT_SOLVED;
+			if (candidates[board] != null) {
+				candidates[board].reset();
+			}
+		}
+		unsolved = (int) ((1L << secrets.length) - 1);
+		if (constraints != null) {
+			constraints.reset();
+		}
+		startMillis = System.currentTimeMillis();
+		guessCount = 0;
+		status = Status.IN_PROGRESS;
+		input = 0;
+		inputLength = 0;
+		for (GameListener listener : listeners) {
+			listener.gameReset(this);
+		}
+	}
+
+	/**
+	 * Turns hard mode on or off, where every guess must use the hints of
+	 * the guesses before it. Turned on part way through a game, the
+	 * guesses already made count.
+	 *
+	 * @param if guesses must use every hint
+	 */
+	public void setHardMode(boolean hardMode) {
+		if (!hardMode) {
+			constraints = null;
+			return;
+		}
+		if (secrets.length != 1) {
+			throw new IllegalStateException(HARD_MODE_ERROR_TEXT);
+		}
+		if (constraints == null) {
+			constraints = new GuessConstraints();
+			for (int i = 0; i < guessCount; i++) {
+				constraints.apply(guesses[i], results[i], engine.getWordLength());
+			}
+		}
+	}
+
+	/**
+	 * Checks if guesses must use every hint
+	 *
+	 * @return if playing in hard mode
+	 */
+	public boolean isHardMode() {
+		return constraints != null;
+	}
+
+	/**
+	 * Turns adversarial play on or off, where the secret word is never
+	 * fixed and each result keeps as many answers possible as it can. The
+	 * secret word reported is one of the answers still possible, and is
+	 * only certain once the game is won.
+	 *
+	 * @param if the secret word is chosen against the guesses
+	 */
+	public void setAdversarial(boolean adversarial) {
+		if (!adversarial) {
+			adversary = null;
+			return;
+		}
+		if (secrets.length != 1 || guessCount > 0) {
+			throw new IllegalStateException(ADVERSARIAL_ERROR_TEXT);
+		}
+		adversary = engine.getAdversary();
+	}
+
+	/**
+	 * Checks if the secret word is chosen against the guesses
+	 *
+	 * @return if playing adversarially
+	 */
+	public boolean isAdversarial() {
+		return adversary != null;
+	}
+
+	/**
+	 * Adds a listener for changes to the game
+	 *
+	 * @param listener
+	 */
+	public void addListener(GameListener listener) {
+		GameListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+		added[listeners.length] = listener;
+		listeners = added;
+	}
+
+	/**
+	 * Removes a listener for changes to the game
+	 *
+	 * @param listener
+	 */
+	public void removeListener(GameListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				GameListener[] removed = new GameListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, removed, 0, i);
+				System.arraycopy(listeners, i + 1, removed, i, removed.length - i);
+				listeners = removed.length == 0 ? NO_LISTENERS : removed;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Adds a letter to the next guess
+	 *
+	 * @param letter typed, in either case
+	 * @return if the letter was added
+	 */
+	public boolean typeLetter(char c) {
+		int letter = WordDictionary.toLetterIndex(c);
+		if (letter < 0 || isOver() || inputLength == engine.getWordLength()) {
+			return false;
+		}
+		input |= (long) letter << (inputLength * WordDictionary.BITS_PER_LETTER);
+		inputLength++;
+		fireInputChanged();
+		return true;
+	}
+
+	/**
+	 * Removes the last letter of the next guess
+	 *
+	 * @return if a letter was removed
+	 */
+	public boolean deleteLetter() {
+		if (inputLength == 0 || isOver()) {
+			return false;
+		}
+		inputLength--;
+		input &= ~((long) WordDictionary.LETTER_MASK << (inputLength * WordDictionary.BITS_PER_LETTER));
+		fireInputChanged();
+		return true;
+	}
+
+	/**
+	 * Removes every letter typed for the next guess
+	 */
+	public void clearInput() {
+		if (inputLength == 0) return;
+		input = 0;
+		inputLength = 0;
+		fireInputChanged();
+	}
+
+	/**
+	 * Submits the typed letters as a guess
+	 *
+	 * @return result from 0 to 3^length - 1, NOT_SUBMITTED, or HARD_MODE_REJECTED
+	 */
+	public int submitGuess() {
+		if (inputLength != engine.getWordLength()) {
+			return NOT_SUBMITTED;
+		}
+		return submitGuess(input);
+	}
+
+	/**
+	 * Submits a guess, checking it is in the word list first, and scores it
+	 * against every board not yet solved
+	 *
+	 * @param packed guess with as many letters as the engine's words
+	 * @return result on the first board from 0 to 3^length - 1, NOT_SUBMITTED, or HARD_MODE_REJECTED
+	 */
+	public int submitGuess(long guess) {
+		if (isOver()) {
+			return NOT_SUBMITTED;
+		}
+		// Time validation and scoring for the metrics and flight recordings
+		GameEvents.Guess event = new GameEvents.Guess();
+		event.begin();
+		long start = System.nanoTime();
+		if (!engine.isInWordList(guess)) {
+			Metrics.get().recordInvalidGuess();
+			event.end();
+			if (event.shouldCommit()) {
+				event.guess = WordDictionary.unpack(guess, engine.getWordLength());
+				event.commit();
+			}
+			return NOT_SUBMITTED;
+		}
+		if (constraints != null && !constraints.allows(guess, engine.getWordLength())) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.guess = WordDictionary.unpack(guess, engine.getWordLength());
+				event.commit();
+			}
+			return HARD_MODE_REJECTED;
+		}
+		int numBoards = secrets.length;
+		int offset = guessCount * numBoards;
+		int scored = unsolved;
+		if (adversary != null) {
+			results[offset] = adversary.respond(guess, getCandidates(0));
+		} else if (numBoards == 1) {
+			results[offset] = engine.checkGuess(guess, secrets[0]);
+		} else {
+			// Boards solved earlier keep an empty result for the row
+			Arrays.fill(results, offset, offset + numBoards, 0);
+			engine.checkGuess(guess, secrets, scored, letterCounts, results, offset);
+		}
+		Metrics.get().recordGuess(System.nanoTime() - start);
+		event.end();
+		if (event.shouldCommit()) {
+			event.guess = WordDictionary.unpack(guess, engine.getWordLength());
+			event.valid = true;
+			event.result = resultsToString(offset, scored);
+			event.commit();
+		}
+		if (constraints != null) {
+			constraints.apply(guess, results[offset], engine.getWordLength());
+		}
+		guesses[guessCount] = guess;
+		guessMillis[guessCount] = (int) (System.currentTimeMillis() - startMillis);
+		for (int remaining = scored; remaining != 0; remaining &= remaining - 1) {
+			int board = Integer.numberOfTrailingZeros(remaining);
+			if (candidates[board] != null) {
+				candidates[board].apply(guess, results[offset + board]);
+			}
+			if (Feedback.isAllHits(results[offset + board], engine.getWordLength())) {
+				solvedRows[board] = guessCount;
+				unsolved &= ~(1 << board);
+			}
+		}
+		guessCount++;
+		if (adversary != null) {
+			// Any answer left is as good as any other until only one is
+			secretIndices[0] = candidates[0].nextCandidate(0);
+			secrets[0] = engine.getDictionary().get(secretIndices[0]);
+		}
+		// Check for end game
+		if (unsolved == 0) {
+			status = Status.WON;
+		} else if (guessCount == guesses.length) {
+			status = Status.LOST;
+		}
+		int result = results[offset];
+		input = 0;
+		inputLength = 0;
+		for (GameListener listener : listeners) {
+			listener.guessSubmitted(this, guessCount - 1, guess, result);
+		}
+		if (isOver()) {
+			Metrics.get().recordGameEnded(isWon());
+			for (GameListener listener : listeners) {
+				listener.gameEnded(this);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the results of one guess on the boards it was scored on
+	 *
+	 * @param offset of the row's results
+	 * @param bit mask of the boards scored
+	 * @return results separated by spaces, such as "GYXXG XXYXX"
+	 */
+	private String resultsToString(int offset, int scored) {
+		StringBuilder text = new StringBuilder();
+		for (int remaining = scored; remaining != 0; remaining &= remaining - 1) {
+			int board = Integer.numberOfTrailingZeros(remaining);
+			if (text.length() > 0) text.append(' ');
+			text.append(Feedback.toString(results[offset + board], engine.getWordLength()));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Tells every listener the typed letters changed
+	 */
+	private void fireInputChanged() {
+		for (GameListener listener : listeners) {
+			listener.inputChanged(this);
+		}
+	}
+
+	/**
+	 * Gets the engine the game is played with
+	 *
+	 * @return engine
+	 */
+	public GameEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Gets the number of boards, each with its own secret word
+	 *
+	 * @return number of boards
+	 */
+	public int getBoardCount() {
+		return secrets.length;
+	}
+
+	/**
+	 * Gets the packed secret word of the first board
+	 *
+	 * @return secret word
+	 */
+	public long getSecret() {
+		return secrets[0];
+	}
+
+	/**
+	 * Gets the packed secret word of a board
+	 *
+	 * @param board
+	 * @return secret word
+	 */
+	public long getSecret(int board) {
+		return secrets[board];
+	}
+
+	/**
+	 * Gets the index of the secret word of the first board in the dictionary
+	 *
+	 * @return index
+	 */
+	public int getSecretIndex() {
+		return secretIndices[0];
+	}
+
+	/**
+	 * Gets the secret word of the first board as a string
+	 *
+	 * @return secret word
+	 */
+	public String getSecretWord() {
+		return getSecretWord(0);
+	}
+
+	/**
+	 * Gets the secret word of a board as a string
+	 *
+	 * @param board
+	 * @return secret word
+	 */
+	public String getSecretWord(int board) {
+		return WordDictionary.unpack(secrets[board], engine.getWordLength());
+	}
+
+	/**
+	 * Checks if a board's secret word was guessed
+	 *
+	 * @param board
+	 * @return if the board is solved
+	 */
+	public boolean isSolved(int board) {
+		return solvedRows[board] != NOT_SOLVED;
+	}
+
+	/**
+	 * Gets the guess that solved a board
+	 *
+	 * @param board
+	 * @return row of the guess or NOT_SOLVED
+	 */
+	public int getSolvedRow(int board) {
+		return solvedRows[board];
+	}
+
+	/**
+	 * Gets the number of boards solved so far
+	 *
+	 * @return solved boards
+	 */
+	public int getSolvedCount() {
+		return secrets.length - Integer.bitCount(unsolved);
+	}
+
+	/**
+	 * Gets the number of guesses submitted
+	 *
+	 * @return guess count
+	 */
+	public int getGuessCount() {
+		return guessCount;
+	}
+
+	/**
+	 * Gets a submitted guess
+	 *
+	 * @param index of the guess
+	 * @return packed guess
+	 */
+	public long getGuess(int index) {
+		return guesses[index];
+	}
+
+	/**
+	 * Gets the result of a submitted guess on the first board
+	 *
+	 * @param index of the guess
+	 * @return result from 0 to 3^length - 1
+	 */
+	public int getResult(int index) {
+		return results[index * secrets.length];
+	}
+
+	/**
+	 * Gets the result of a submitted guess on a board, only meaningful up
+	 * to the row that solved the board
+	 *
+	 * @param index of the guess
+	 * @param board
+	 * @return result from 0 to 3^length - 1
+	 */
+	public int getResult(int index, int board) {
+		return results[index * secrets.length + board];
+	}
+
+	/**
+	 * Gets when a submitted guess was made
+	 *
+	 * @param index of the guess
+	 * @return milliseconds from the start of the game
+	 */
+	public int getGuessMillis(int index) {
+		return guessMillis[index];
+	}
+
+	/**
+	 * Gets when the game started
+	 *
+	 * @return epoch milliseconds
+	 */
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	/**
+	 * Gets the answers that are still possible on the first board, kept up
+	 * to date as guesses are submitted from the first time they are asked for
+	 *
+	 * @return candidate set, must not be modified
+	 */
+	public CandidateSet getCandidates() {
+		return getCandidates(0);
+	}
+
+	/**
+	 * Gets the answers that are still possible on a board, kept up to date
+	 * as guesses are submitted from the first time they are asked for
+	 *
+	 * @param board
+	 * @return candidate set, must not be modified
+	 */
+	public CandidateSet getCandidates(int board) {
+		if (candidates[board] == null) {
+			CandidateSet set = new CandidateSet(engine.getCandidateIndex());
+			// Guesses after the board was solved were not scored on it
+			int rows = solvedRows[board] == NOT_SOLVED ? guessCount : solvedRows[board] + 1;
+			for (int i = 0; i < rows; i++) {
+				set.apply(guesses[i], getResult(i, board));
+			}
+			candidates[board] = set;
+		}
+		return candidates[board];
+	}
+
+	/**
+	 * Gets the number of letters typed for the next guess
+	 *
+	 * @return input length
+	 */
+	public int getInputLength() {
+		return inputLength;
+	}
+
+	/**
+	 * Gets a letter typed for the next guess
+	 *
+	 * @param position of the letter
+	 * @return uppercase letter
+	 */
+	public char getInputLetter(int position) {
+		return (char) ('A' + WordDictionary.letterAt(input, position));
+	}
+
+	/**
+	 * Gets the progress of the game
+	 *
+	 * @return status
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Checks if the secret word of every board was guessed
+	 *
+	 * @return if the game was won
+	 */
+	public boolean isWon() {
+		return status == Status.WON;
+	}
+
+	/**
+	 * Checks if every guess was used without finding the secret word
+	 *
+	 * @return if the game was lost
+	 */
+	public boolean isLost() {
+		return status == Status.LOST;
+	}
+
+	/**
+	 * Checks if the game has ended
+	 *
+	 * @return if the game was won or lost
+	 */
+	public boolean isOver() {
+		return status != Status.IN_PROGRESS;
+	}
+
+}
@@ -0,0 +1,109 @@
+package application;
+
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Images of whole cells, each result with each letter or none, drawn once
+ * and then copied onto canvases. Drawing a cached image is far cheaper than
+ * laying out and rasterizing text every time a cell changes. Cells are
+ * drawn to look like a WordleRectangle of the same size and theme.
+ *
+ * @author Max Morhardt
+ */
+public final class GlyphCache {
+
+	// Cell attributes, the same as a WordleRectangle
+	private static final double FONT_SCALE = 0.3;
+	private static final String FONT = "Helvetica";
+	private static final FontWeight FONT_WEIGHT = FontWeight.BOLD;
+
+	// One image for a cell with no letter and one for each letter, for no result and each result
+	private static final int NUM_GLYPHS = 1 + KeyboardState.NUM_LETTERS;
+	private static final int NUM_RESULTS = 4;
+
+	private final int size;
+	private final Theme theme;
+	private final Font font;
+	private final Image[][] cells = new Image[NUM_RESULTS][NUM_GLYPHS];
+	// Canvas the images are drawn on before they are copied out
+	private Canvas scratch;
+
+	/**
+	 * Constructor
+	 *
+	 * @param width and height of a cell in pixels
+	 * @param theme giving the colors of the cells
+	 */
+	public GlyphCache(int size, Theme theme) {
+		this.size = size;
+		this.theme = theme;
+		this.font = Font.font(FONT, FONT_WEIGHT, size * FONT_SCALE);
+	}
+
+	/**
+	 * Gets the width and height of a cell
+	 *
+	 * @return size in pixels
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the image of a cell, drawing it the first time it is asked for.
+	 * Must be called on the JavaFX application thread.
+	 *
+	 * @param result HIT, CONTAINS or MISS, or BoardView.EMPTY
+	 * @param uppercase letter, or 0 for a cell with no letter
+	 * @return image of the cell
+	 */
+	public Image get(int result, char letter) {
+		Image[] glyphs = cells[result - BoardView.EMPTY];
+		int glyph = letter >= 'A' && letter <= 'Z' ? letter - 'A' + 1 : 0;
+		Image image = glyphs[glyph];
+		if (image == null) {
+			image = draw(result, glyph == 0 ? null : String.valueOf(letter));
+			glyphs[glyph] = image;
+		}
+		return image;
+	}
+
+	/**
+	 * Draws one cell and copies it into an image
+	 *
+	 * @param result HIT, CONTAINS or MISS, or BoardView.EMPTY
+	 * @param letter, or null for a cell with no letter
+	 * @return image of the cell
+	 */
+	private Image draw(int result, String letter) {
+		if (scratch == null) {
+			scratch = new Canvas(size, size);
+		}
+		GraphicsContext graphics = scratch.getGraphicsContext2D();
+		graphics.setFill(theme.getFill(result));
+		graphics.fillRect(0, 0, size, size);
+		// A one pixel border inside the cell
+		graphics.setStroke(theme.getBorderColor());
+		graphics.setLineWidth(1);
+		graphics.strokeRect(0.5, 0.5, size - 1, size - 1);
+		if (letter != null) {
+			graphics.setFill(theme.getTextColor(result));
+			graphics.setFont(font);
+			graphics.setTextAlign(TextAlignment.CENTER);
+			graphics.setTextBaseline(VPos.CENTER);
+			graphics.fillText(letter, size / 2.0, size / 2.0);
+		}
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		return scratch.snapshot(parameters, null);
+	}
+
+}
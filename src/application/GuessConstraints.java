@@ -0,0 +1,150 @@
+package application;
+
+/**
+ * What hard mode requires of the next guess, built up one result at a time:
+ * letters found in place must stay there, letters found anywhere must be
+ * used at least as many times as they were found, and letters found to be
+ * missing may not be used. Checking a guess never looks at earlier
+ * guesses, it only compares the guess's letter counts against these
+ * masks.
+ *
+ * Letter counts are kept 4 bits per letter in two longs, a to p then q
+ * to z, like the leftover counts in Feedback.
+ *
+ * @author Max Morhardt
+ */
+public final class GuessConstraints {
+
+	// Low 4 bits of every byte, and the bit above them
+	private static final long EVEN_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+	private static final long NIBBLE_GUARDS = 0x1010101010101010L;
+
+	// Letters required in place, their 5 bit slots and their values
+	private long placedMask;
+	private long placedLetters;
+	// Fewest copies of each letter a guess must have
+	private long lowMinCounts;
+	private long highMinCounts;
+	// Bit mask of the letters known not to be in the word
+	private int bannedLetters;
+
+	/**
+	 * Removes every constraint, for a new game
+	 */
+	public void reset() {
+		placedMask = 0;
+		placedLetters = 0;
+		lowMinCounts = 0;
+		highMinCounts = 0;
+		bannedLetters = 0;
+	}
+
+	/**
+	 * Adds what a scored guess revealed
+	 *
+	 * @param packed guess
+	 * @param result of the guess
+	 * @param number of letters in the guess
+	 */
+	public void apply(long guess, int result, int length) {
+		// Letters found by this guess, hit or contained, 4 bits per letter
+		long lowFound = 0;
+		long highFound = 0;
+		int missed = 0;
+		for (int i = 0; i < length; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			int value = Feedback.at(result, i);
+			if (value == Feedback.MISS) {
+				missed |= 1 << letter;
+				continue;
+			}
+			if (value == Feedback.HIT) {
+				long slot = (long) WordDictionary.LETTER_MASK << (i * WordDictionary.BITS_PER_LETTER);
+				placedMask |= slot;
+				placedLetters = (placedLetters & ~slot) | (guess & slot);
+			}
+			if (letter < 16) {
+				lowFound += 1L << (letter << 2);
+			} else {
+				highFound += 1L << ((letter - 16) << 2);
+			}
+		}
+		lowMinCounts = maxNibbles(lowMinCounts, lowFound);
+		highMinCounts = maxNibbles(highMinCounts, highFound);
+		// A miss of a letter found nowhere in the guess means the word has none of it
+		bannedLetters |= missed & ~(foundLetters(lowFound, 0) | foundLetters(highFound, 16));
+	}
+
+	/**
+	 * Checks a guess uses every hint so far
+	 *
+	 * @param packed guess
+	 * @param number of letters in the guess
+	 * @return if the guess is allowed in hard mode
+	 */
+	public boolean allows(long guess, int length) {
+		if (((guess ^ placedLetters) & placedMask) != 0) return false;
+		// Letter counts of the guess
+		long lowCounts = 0;
+		long highCounts = 0;
+		int letters = 0;
+		for (int i = 0; i < length; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			letters |= 1 << letter;
+			if (letter < 16) {
+				lowCounts += 1L << (letter << 2);
+			} else {
+				highCounts += 1L << ((letter - 16) << 2);
+			}
+		}
+		return (letters & bannedLetters) == 0 && covers(lowCounts, lowMinCounts) && covers(highCounts, highMinCounts);
+	}
+
+	/**
+	 * Checks every 4 bit count is at least its minimum. Each half of the
+	 * counts is spread to 8 bits a count so one subtraction compares them
+	 * all, the guard bit above each count surviving only if no borrow took it.
+	 *
+	 * @param counts
+	 * @param minimums
+	 * @return if no count is below its minimum
+	 */
+	private static boolean covers(long counts, long minimums) {
+		long even = ((counts & EVEN_NIBBLES) | NIBBLE_GUARDS) - (minimums & EVEN_NIBBLES);
+		long odd = ((counts >>> 4 & EVEN_NIBBLES) | NIBBLE_GUARDS) - (minimums >>> 4 & EVEN_NIBBLES);
+		return (even & odd & NIBBLE_GUARDS) == NIBBLE_GUARDS;
+	}
+
+	/**
+	 * Takes the larger of each pair of 4 bit counts
+	 *
+	 * @param counts
+	 * @param other counts
+	 * @return larger counts
+	 */
+	private static long maxNibbles(long a, long b) {
+		long max = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 4) {
+			max |= Math.max(a >>> shift & 0xF, b >>> shift & 0xF) << shift;
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the letters with a count above zero
+	 *
+	 * @param 4 bit counts
+	 * @param letter index of the first count
+	 * @return bit mask of letters
+	 */
+	private static int foundLetters(long counts, int firstLetter) {
+		int letters = 0;
+		for (int i = 0; counts != 0; i++, counts >>>= 4) {
+			if ((counts & 0xF) != 0) {
+				letters |= 1 << (firstLetter + i);
+			}
+		}
+		return letters;
+	}
+
+}
@@ -0,0 +1,19 @@
+package application;
+
+/**
+ * Chooses guesses for a game without a player, used by simulations and bots
+ *
+ * @author Max Morhardt
+ */
+@FunctionalInterface
+public interface GuessStrategy {
+
+	/**
+	 * Chooses the next guess for a game in progress
+	 *
+	 * @param session being played
+	 * @return packed guess
+	 */
+	long nextGuess(GameSession session);
+
+}
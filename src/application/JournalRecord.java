@@ -0,0 +1,161 @@
+package application;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One fixed size game record in a GameJournal, read in place from its
+ * segment. Scans reuse a single record for every game, so a record handed
+ * to a scan callback must be copied to be kept.
+ *
+ * Layout, little endian:
+ *   0    byte      outcome, 0 while the slot is empty
+ *   1    byte      number of guesses
+ *   2    byte      number of letters in each word
+ *   8    long      packed secret word
+ *   16   long      start, epoch milliseconds
+ *   24   long      end, epoch milliseconds
+ *   32   long[24]  packed guesses
+ *   224  int[24]   milliseconds from the start to each guess
+ *   320  int[24]   results from 0 to 3^length - 1
+ *
+ * @author Max Morhardt
+ */
+public final class JournalRecord {
+
+	// Outcomes
+	public static final byte EMPTY = 0;
+	public static final byte WON = 1;
+	public static final byte LOST = 2;
+	public static final byte ABANDONED = 3;
+
+	// Layout
+	public static final int SIZE = 416;
+	public static final int MAX_GUESSES = GameEngine.MAX_NUM_GUESSES;
+	static final int OUTCOME_OFFSET = 0;
+	static final int GUESS_COUNT_OFFSET = 1;
+	static final int WORD_LENGTH_OFFSET = 2;
+	static final int SECRET_OFFSET = 8;
+	static final int START_OFFSET = 16;
+	static final int END_OFFSET = 24;
+	static final int GUESSES_OFFSET = 32;
+	static final int GUESS_MILLIS_OFFSET = GUESSES_OFFSET + MAX_GUESSES * Long.BYTES;
+	static final int RESULTS_OFFSET = GUESS_MILLIS_OFFSET + MAX_GUESSES * Integer.BYTES;
+
+	private ByteBuffer buffer;
+	private int offset;
+
+	/**
+	 * Constructor, pointed at a record by the journal
+	 */
+	JournalRecord() {
+	}
+
+	/**
+	 * Points the record at a slot
+	 *
+	 * @param buffer holding the record, little endian
+	 * @param offset of the record in the buffer
+	 */
+	void moveTo(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+
+	/**
+	 * Copies the record out of its segment so it can be kept after a scan
+	 *
+	 * @return record backed by its own bytes
+	 */
+	public JournalRecord copy() {
+		byte[] bytes = new byte[SIZE];
+		buffer.get(offset, bytes);
+		JournalRecord copy = new JournalRecord();
+		copy.moveTo(ByteBuffer.wrap(bytes).order(buffer.order()), 0);
+		return copy;
+	}
+
+	/**
+	 * Gets how the game ended
+	 *
+	 * @return WON, LOST, or ABANDONED
+	 */
+	public byte getOutcome() {
+		return buffer.get(offset + OUTCOME_OFFSET);
+	}
+
+	/**
+	 * Gets the packed secret word
+	 *
+	 * @return secret word
+	 */
+	public long getSecret() {
+		return buffer.getLong(offset + SECRET_OFFSET);
+	}
+
+	/**
+	 * Gets the number of letters in each word of the game
+	 *
+	 * @return word length
+	 */
+	public int getWordLength() {
+		return buffer.get(offset + WORD_LENGTH_OFFSET);
+	}
+
+	/**
+	 * Gets when the game started
+	 *
+	 * @return epoch milliseconds
+	 */
+	public long getStartMillis() {
+		return buffer.getLong(offset + START_OFFSET);
+	}
+
+	/**
+	 * Gets when the game was recorded
+	 *
+	 * @return epoch milliseconds
+	 */
+	public long getEndMillis() {
+		return buffer.getLong(offset + END_OFFSET);
+	}
+
+	/**
+	 * Gets the number of guesses made
+	 *
+	 * @return guess count
+	 */
+	public int getGuessCount() {
+		return buffer.get(offset + GUESS_COUNT_OFFSET);
+	}
+
+	/**
+	 * Gets a guess
+	 *
+	 * @param index of the guess
+	 * @return packed guess
+	 */
+	public long getGuess(int index) {
+		return buffer.getLong(offset + GUESSES_OFFSET + index * Long.BYTES);
+	}
+
+	/**
+	 * Gets when a guess was made
+	 *
+	 * @param index of the guess
+	 * @return milliseconds from the start of the game
+	 */
+	public int getGuessMillis(int index) {
+		return buffer.getInt(offset + GUESS_MILLIS_OFFSET + index * Integer.BYTES);
+	}
+
+	/**
+	 * Gets the result of a guess
+	 *
+	 * @param index of the guess
+	 * @return result from 0 to 3^length - 1
+	 */
+	public int getResult(int index) {
+		return buffer.getInt(offset + RESULTS_OFFSET + index * Integer.BYTES);
+	}
+
+}
@@ -0,0 +1,64 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * What is known about each letter of the alphabet after the guesses so far.
+ * A letter's state only ever moves up, from unknown to absent to present to
+ * correct, so a later miss never hides an earlier hit.
+ *
+ * @author Max Morhardt
+ */
+public final class KeyboardState {
+
+	// Letter states in the order they can be upgraded
+	public static final byte UNKNOWN = 0;
+	public static final byte ABSENT = 1;
+	public static final byte PRESENT = 2;
+	public static final byte CORRECT = 3;
+
+	// Number of letters in the alphabet
+	public static final int NUM_LETTERS = 26;
+
+	private final byte[] states = new byte[NUM_LETTERS];
+
+	/**
+	 * Upgrades the letters of a guess from its result
+	 *
+	 * @param packed guess
+	 * @param result of the guess
+	 * @param number of letters in the guess
+	 * @return bit mask of the letters whose state changed
+	 */
+	public int apply(long guess, int result, int length) {
+		int changed = 0;
+		for (int i = 0; i < length; i++) {
+			int letter = WordDictionary.letterAt(guess, i);
+			// MISS, CONTAINS and HIT are one less than ABSENT, PRESENT and CORRECT
+			byte state = (byte) (Feedback.at(result, i) + 1);
+			if (state > states[letter]) {
+				states[letter] = state;
+				changed |= 1 << letter;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Gets the state of a letter
+	 *
+	 * @param letter index from 0 (a) to 25 (z)
+	 * @return UNKNOWN, ABSENT, PRESENT or CORRECT
+	 */
+	public byte get(int letter) {
+		return states[letter];
+	}
+
+	/**
+	 * Sets every letter back to unknown
+	 */
+	public void reset() {
+		Arrays.fill(states, UNKNOWN);
+	}
+
+}
@@ -0,0 +1,116 @@
+package application;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds that many threads can record into
+ * without locking. Each power of two is split into eight buckets, so a
+ * percentile is reported within an eighth of its true value. Similar
+ * latencies land in the same bucket, so each bucket is a striped adder
+ * that spreads threads recording at once over their own cells, and the
+ * cells are only summed when the histogram is read.
+ *
+ * @author Max Morhardt
+ */
+public final class LatencyHistogram {
+
+	// Buckets per power of two, as bits
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int NUM_BUCKETS = (Long.SIZE - SUB_BITS) << SUB_BITS;
+
+	private final LongAdder[] counts = new LongAdder[NUM_BUCKETS];
+
+	/**
+	 * Constructor
+	 */
+	public LatencyHistogram() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			counts[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records one latency
+	 *
+	 * @param latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		counts[bucketOf(Math.max(0, nanos))].increment();
+	}
+
+	/**
+	 * Gets the number of latencies recorded
+	 *
+	 * @return count
+	 */
+	public long count() {
+		long count = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			count += counts[i].sum();
+		}
+		return count;
+	}
+
+	/**
+	 * Gets a percentile of the latencies recorded so far
+	 *
+	 * @param percentile from 0 to 100
+	 * @return upper bound of the bucket holding the percentile in
+	 *         nanoseconds, or 0 if nothing was recorded
+	 */
+	public long percentile(double percentile) {
+		// Copy once so the rank and the walk see the same counts
+		long[] snapshot = new long[NUM_BUCKETS];
+		long total = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			snapshot[i] = counts[i].sum();
+			total += snapshot[i];
+		}
+		if (total == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return i + 1 < NUM_BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Clears every bucket
+	 */
+	public void reset() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			counts[i].reset();
+		}
+	}
+
+	/**
+	 * Finds the bucket of a latency
+	 *
+	 * @param latency in nanoseconds, not negative
+	 * @return bucket index
+	 */
+	private static int bucketOf(long nanos) {
+		if (nanos < SUB_COUNT) return (int) nanos;
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+	}
+
+	/**
+	 * Gets the smallest latency in a bucket
+	 *
+	 * @param bucket index
+	 * @return latency in nanoseconds
+	 */
+	private static long lowerBound(int bucket) {
+		if (bucket < SUB_COUNT) return bucket;
+		int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+		return (long) (SUB_COUNT + (bucket & (SUB_COUNT - 1))) << (exponent - SUB_BITS);
+	}
+
+}
@@ -0,0 +1,286 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global and per word leaderboards of fewest guesses, fastest solve, and
+ * longest streak, fed by the end of every game on a server. Recording a
+ * game only touches that player's counters, which are striped adders and
+ * atomics in a concurrent map, and merges a small immutable result into
+ * the word's concurrent map, so thousands of sessions can finish at once
+ * without sharing a lock. Readers never see the live counters: they get
+ * the last immutable snapshot, which refresh rebuilds on a timer. A
+ * player's row and a word's rankings are only rebuilt when a game of that
+ * player or with that word finished since the last snapshot. A few changed
+ * rows are moved within the last rankings instead of sorting every player
+ * again, and with no games finished the rankings are reused as they are.
+ *
+ * Games on more than one board and adversarial games are not ranked.
+ *
+ * @author Max Morhardt
+ */
+public final class Leaderboard {
+
+	// How often the server takes a new snapshot by default
+	public static final long DEFAULT_REFRESH_MILLIS = 1000;
+	// Most changed players moved within the last rankings, beyond which they are sorted again
+	private static final int MAX_RERANKED_PLAYERS = 64;
+
+	private final long refreshMillis;
+	private final ConcurrentHashMap<String, Standing> players = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, ConcurrentHashMap<String, WordResult>> words = new ConcurrentHashMap<>();
+	// Players and secret words with games finished since the last snapshot
+	private final Set<String> changedPlayers = ConcurrentHashMap.newKeySet();
+	private final Set<Long> changedWords = ConcurrentHashMap.newKeySet();
+	// Every player's row as of the last snapshot, only used by refresh
+	private final Map<String, LeaderboardEntry> playerRows = new HashMap<>();
+	private volatile LeaderboardSnapshot snapshot = LeaderboardSnapshot.EMPTY;
+
+	/**
+	 * One player's live counters over every word
+	 */
+	private static final class Standing {
+
+		private final LongAdder games = new LongAdder();
+		private final LongAdder wins = new LongAdder();
+		private final LongAdder winGuesses = new LongAdder();
+		private final AtomicInteger fewestGuesses = new AtomicInteger(LeaderboardEntry.NO_GUESSES);
+		private final AtomicLong fastestMillis = new AtomicLong(LeaderboardEntry.NO_TIME);
+		private final AtomicInteger currentStreak = new AtomicInteger();
+		private final AtomicInteger longestStreak = new AtomicInteger();
+
+		/**
+		 * Adds a finished game
+		 *
+		 * @param if the game was won
+		 * @param guesses made
+		 * @param milliseconds from the start of the game to the last guess
+		 */
+		private void record(boolean won, int guesses, long millis) {
+			games.increment();
+			if (!won) {
+				currentStreak.set(0);
+				return;
+			}
+			wins.increment();
+			winGuesses.add(guesses);
+			fewestGuesses.accumulateAndGet(guesses, Math::min);
+			fastestMillis.accumulateAndGet(millis, Math::min);
+			longestStreak.accumulateAndGet(currentStreak.incrementAndGet(), Math::max);
+		}
+
+		/**
+		 * Copies the counters into an immutable row
+		 *
+		 * @param name of the player
+		 * @return row
+		 */
+		private LeaderboardEntry toEntry(String player) {
+			long numWins = wins.sum();
+			return new LeaderboardEntry(player, games.sum(), numWins, fewestGuesses.get(),
+					numWins == 0 ? 0 : (double) winGuesses.sum() / numWins, fastestMillis.get(), currentStreak.get(),
+					longestStreak.get());
+		}
+
+	}
+
+	/**
+	 * One player's games at one word. A player rarely plays a word more than
+	 * once, so these are replaced whole instead of holding counters.
+	 */
+	private static final class WordResult {
+
+		private final int games;
+		private final int wins;
+		private final int winGuesses;
+		private final int fewestGuesses;
+		private final long fastestMillis;
+		private final int currentStreak;
+		private final int longestStreak;
+
+		/**
+		 * Constructor
+		 *
+		 * @param games finished
+		 * @param games won
+		 * @param total guesses in wins
+		 * @param fewest guesses in a win, or NO_GUESSES
+		 * @param fastest win, or NO_TIME
+		 * @param wins in a row up to the last game
+		 * @param most wins in a row
+		 */
+		private WordResult(int games, int wins, int winGuesses, int fewestGuesses, long fastestMillis,
+				int currentStreak, int longestStreak) {
+			this.games = games;
+			this.wins = wins;
+			this.winGuesses = winGuesses;
+			this.fewestGuesses = fewestGuesses;
+			this.fastestMillis = fastestMillis;
+			this.currentStreak = currentStreak;
+			this.longestStreak = longestStreak;
+		}
+
+		/**
+		 * Makes the result of one game
+		 *
+		 * @param if the game was won
+		 * @param guesses made
+		 * @param milliseconds from the start of the game to the last guess
+		 * @return result
+		 */
+		private static WordResult of(boolean won, int guesses, long millis) {
+			return won ? new WordResult(1, 1, guesses, guesses, millis, 1, 1)
+					: new WordResult(1, 0, 0, LeaderboardEntry.NO_GUESSES, LeaderboardEntry.NO_TIME, 0, 0);
+		}
+
+		/**
+		 * Adds a later game to this result
+		 *
+		 * @param result of one game
+		 * @return combined result
+		 */
+		private WordResult plus(WordResult game) {
+			int streak = game.wins == 0 ? 0 : currentStreak + 1;
+			return new WordResult(games + 1, wins + game.wins, winGuesses + game.winGuesses,
+					Math.min(fewestGuesses, game.fewestGuesses), Math.min(fastestMillis, game.fastestMillis), streak,
+					Math.max(longestStreak, streak));
+		}
+
+		/**
+		 * Copies the result into an immutable row
+		 *
+		 * @param name of the player
+		 * @return row
+		 */
+		private LeaderboardEntry toEntry(String player) {
+			return new LeaderboardEntry(player, games, wins, fewestGuesses, wins == 0 ? 0 : (double) winGuesses / wins,
+					fastestMillis, currentStreak, longestStreak);
+		}
+
+	}
+
+	/**
+	 * Constructor for a leaderboard refreshed every second
+	 */
+	public Leaderboard() {
+		this(DEFAULT_REFRESH_MILLIS);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param how often snapshots should be taken, in milliseconds
+	 */
+	public Leaderboard(long refreshMillis) {
+		this.refreshMillis = refreshMillis;
+	}
+
+	/**
+	 * Gets how often snapshots should be taken
+	 *
+	 * @return milliseconds between refreshes
+	 */
+	public long getRefreshMillis() {
+		return refreshMillis;
+	}
+
+	/**
+	 * Makes a listener that records a session's game for a player when it ends
+	 *
+	 * @param name of the player
+	 * @return listener to add to the player's session
+	 */
+	public GameListener recorder(String player) {
+		return new GameListener() {
+			@Override
+			public void gameEnded(GameSession session) {
+				if (session.getBoardCount() != 1 || session.isAdversarial()) return;
+				int guesses = session.getGuessCount();
+				record(player, session.getSecret(0), session.isWon(), guesses, session.getGuessMillis(guesses - 1));
+			}
+		};
+	}
+
+	/**
+	 * Records a finished game. Streaks assume a player's games end one at a
+	 * time.
+	 *
+	 * @param name of the player
+	 * @param packed secret word
+	 * @param if the game was won
+	 * @param guesses made
+	 * @param milliseconds from the start of the game to the last guess
+	 */
+	public void record(String player, long secret, boolean won, int guesses, long millis) {
+		players.computeIfAbsent(player, name -> new Standing()).record(won, guesses, millis);
+		words.computeIfAbsent(secret, word -> new ConcurrentHashMap<>()).merge(player,
+				WordResult.of(won, guesses, millis), WordResult::plus);
+		// Marked after the counters change, so a refresh that misses this game sees the marks
+		changedPlayers.add(player);
+		changedWords.add(secret);
+	}
+
+	/**
+	 * Gets the last snapshot taken
+	 *
+	 * @return immutable leaderboards
+	 */
+	public LeaderboardSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Takes a new snapshot of every player and every word played since the
+	 * last one. Games recorded while it runs may or may not be included, and
+	 * are included in the next one.
+	 *
+	 * @return the new snapshot
+	 */
+	public synchronized LeaderboardSnapshot refresh() {
+		LeaderboardSnapshot previous = snapshot;
+		Map<LeaderboardSnapshot.Category, List<LeaderboardEntry>> rankings = previous.getRankings();
+		if (!changedPlayers.isEmpty()) {
+			List<LeaderboardEntry> removed = new ArrayList<>();
+			List<LeaderboardEntry> added = new ArrayList<>();
+			for (Iterator<String> changed = changedPlayers.iterator(); changed.hasNext();) {
+				String player = changed.next();
+				changed.remove();
+				LeaderboardEntry row = players.get(player).toEntry(player);
+				LeaderboardEntry old = playerRows.put(player, row);
+				if (old != null) {
+					removed.add(old);
+				}
+				added.add(row);
+			}
+			rankings = added.size() <= MAX_RERANKED_PLAYERS ? LeaderboardSnapshot.rerank(rankings, removed, added)
+					: LeaderboardSnapshot.rank(playerRows.values().toArray(new LeaderboardEntry[0]));
+		}
+		Map<Long, Map<LeaderboardSnapshot.Category, List<LeaderboardEntry>>> wordRankings = previous
+				.getWordRankings();
+		if (!changedWords.isEmpty()) {
+			wordRankings = new HashMap<>(wordRankings);
+			for (Iterator<Long> changed = changedWords.iterator(); changed.hasNext();) {
+				Long secret = changed.next();
+				changed.remove();
+				LeaderboardEntry[] wordRows = words.get(secret).entrySet().stream()
+						.map(entry -> entry.getValue().toEntry(entry.getKey())).toArray(LeaderboardEntry[]::new);
+				wordRankings.put(secret, LeaderboardSnapshot.rank(wordRows));
+			}
+			wordRankings = Collections.unmodifiableMap(wordRankings);
+		}
+		LeaderboardSnapshot next = new LeaderboardSnapshot(System.currentTimeMillis(), rankings, wordRankings);
+		snapshot = next;
+		return next;
+	}
+
+}
@@ -0,0 +1,145 @@
+package application;
+
+/**
+ * One player's row of a leaderboard as it stood when a snapshot was taken.
+ * Rows are immutable so a snapshot can be read from any thread. On a
+ * word's leaderboard the counts and streaks only cover games with that
+ * secret word.
+ *
+ * @author Max Morhardt
+ */
+public final class LeaderboardEntry {
+
+	// Fewest guesses and fastest solve of a player with no wins
+	public static final int NO_GUESSES = Integer.MAX_VALUE;
+	public static final long NO_TIME = Long.MAX_VALUE;
+
+	private final String player;
+	private final long games;
+	private final long wins;
+	private final int fewestGuesses;
+	private final double averageGuesses;
+	private final long fastestMillis;
+	private final int currentStreak;
+	private final int longestStreak;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name of the player
+	 * @param games finished
+	 * @param games won
+	 * @param fewest guesses in a win, or NO_GUESSES
+	 * @param average guesses in a win, or 0 with no wins
+	 * @param fastest win in milliseconds from the start of the game, or NO_TIME
+	 * @param wins in a row up to the last game
+	 * @param most wins in a row
+	 */
+	public LeaderboardEntry(String player, long games, long wins, int fewestGuesses, double averageGuesses,
+			long fastestMillis, int currentStreak, int longestStreak) {
+		this.player = player;
+		this.games = games;
+		this.wins = wins;
+		this.fewestGuesses = fewestGuesses;
+		this.averageGuesses = averageGuesses;
+		this.fastestMillis = fastestMillis;
+		this.currentStreak = currentStreak;
+		this.longestStreak = longestStreak;
+	}
+
+	/**
+	 * Gets the name of the player
+	 *
+	 * @return player
+	 */
+	public String getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Gets the number of games finished
+	 *
+	 * @return games
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Gets the number of games won
+	 *
+	 * @return wins
+	 */
+	public long getWins() {
+		return wins;
+	}
+
+	/**
+	 * Gets the fewest guesses in a win
+	 *
+	 * @return guesses, or NO_GUESSES
+	 */
+	public int getFewestGuesses() {
+		return fewestGuesses;
+	}
+
+	/**
+	 * Gets the average guesses in a win
+	 *
+	 * @return guesses, or 0 with no wins
+	 */
+	public double getAverageGuesses() {
+		return averageGuesses;
+	}
+
+	/**
+	 * Gets the fastest win
+	 *
+	 * @return milliseconds from the start of the game to the winning guess, or NO_TIME
+	 */
+	public long getFastestMillis() {
+		return fastestMillis;
+	}
+
+	/**
+	 * Gets the wins in a row up to the last game
+	 *
+	 * @return streak
+	 */
+	public int getCurrentStreak() {
+		return currentStreak;
+	}
+
+	/**
+	 * Gets the most wins in a row
+	 *
+	 * @return streak
+	 */
+	public int getLongestStreak() {
+		return longestStreak;
+	}
+
+	/**
+	 * Writes the row as json
+	 *
+	 * @return json
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder(160);
+		json.append("{\"player\":\"").append(player).append("\",\"games\":").append(games).append(",\"wins\":")
+				.append(wins);
+		if (wins > 0) {
+			json.append(",\"fewestGuesses\":").append(fewestGuesses).append(",\"averageGuesses\":")
+					.append(Math.round(averageGuesses * 1000) / 1000.0).append(",\"fastestMillis\":")
+					.append(fastestMillis);
+		}
+		return json.append(",\"currentStreak\":").append(currentStreak).append(",\"longestStreak\":")
+				.append(longestStreak).append('}').toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+}
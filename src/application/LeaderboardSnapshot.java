@@ -0,0 +1,211 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leaderboards as they stood at one moment. Every ranking is sorted when
+ * the snapshot is taken, so asking for the top players only takes a view
+ * of the front of a list and never sorts or locks.
+ *
+ * @author Max Morhardt
+ */
+public final class LeaderboardSnapshot {
+
+	/**
+	 * What players are ranked by
+	 */
+	public enum Category {
+		// Fewest guesses in a win, then lowest average, then fastest
+		FEWEST_GUESSES,
+		// Fastest win, then fewest guesses
+		FASTEST_SOLVE,
+		// Most wins in a row, then the current streak, then most wins
+		LONGEST_STREAK
+	}
+
+	// Orders of the rankings, best first, and players with no wins last
+	private static final Comparator<LeaderboardEntry> BY_FEWEST_GUESSES = Comparator
+			.comparingInt(LeaderboardEntry::getFewestGuesses)
+			.thenComparing(entry -> entry.getWins() == 0 ? Double.MAX_VALUE : entry.getAverageGuesses())
+			.thenComparingLong(LeaderboardEntry::getFastestMillis).thenComparing(LeaderboardEntry::getPlayer);
+	private static final Comparator<LeaderboardEntry> BY_FASTEST_SOLVE = Comparator
+			.comparingLong(LeaderboardEntry::getFastestMillis).thenComparingInt(LeaderboardEntry::getFewestGuesses)
+			.thenComparing(LeaderboardEntry::getPlayer);
+	private static final Comparator<LeaderboardEntry> BY_LONGEST_STREAK = Comparator
+			.comparingInt(LeaderboardEntry::getLongestStreak).reversed()
+			.thenComparing(Comparator.comparingInt(LeaderboardEntry::getCurrentStreak).reversed())
+			.thenComparing(Comparator.comparingLong(LeaderboardEntry::getWins).reversed())
+			.thenComparing(LeaderboardEntry::getPlayer);
+
+	// Snapshot with no games
+	static final LeaderboardSnapshot EMPTY = new LeaderboardSnapshot(0, rank(new LeaderboardEntry[0]),
+			Collections.emptyMap());
+
+	private final long takenMillis;
+	private final Map<Category, List<LeaderboardEntry>> rankings;
+	private final Map<Long, Map<Category, List<LeaderboardEntry>>> wordRankings;
+
+	/**
+	 * Constructor
+	 *
+	 * @param time the snapshot was taken in epoch milliseconds
+	 * @param rankings over every word, from rank, not copied
+	 * @param rankings of each secret word, from rank, not copied
+	 */
+	LeaderboardSnapshot(long takenMillis, Map<Category, List<LeaderboardEntry>> rankings,
+			Map<Long, Map<Category, List<LeaderboardEntry>>> wordRankings) {
+		this.takenMillis = takenMillis;
+		this.rankings = rankings;
+		this.wordRankings = wordRankings;
+	}
+
+	/**
+	 * Sorts rows into every ranking
+	 *
+	 * @param rows, in any order, not kept
+	 * @return unmodifiable ranking of each category
+	 */
+	static Map<Category, List<LeaderboardEntry>> rank(LeaderboardEntry[] rows) {
+		Map<Category, List<LeaderboardEntry>> ranked = new EnumMap<>(Category.class);
+		for (Category category : Category.values()) {
+			ranked.put(category, sorted(rows, order(category)));
+		}
+		return Collections.unmodifiableMap(ranked);
+	}
+
+	/**
+	 * Moves a few changed rows within existing rankings, without sorting
+	 * them again. Each old row is found and each new row placed by binary
+	 * search, so this costs a copy of each ranking plus a search per row.
+	 *
+	 * @param rankings from rank or rerank, not changed
+	 * @param rows to take out, each in every ranking
+	 * @param rows to put in
+	 * @return unmodifiable ranking of each category
+	 */
+	static Map<Category, List<LeaderboardEntry>> rerank(Map<Category, List<LeaderboardEntry>> rankings,
+			List<LeaderboardEntry> removed, List<LeaderboardEntry> added) {
+		Map<Category, List<LeaderboardEntry>> ranked = new EnumMap<>(Category.class);
+		for (Category category : Category.values()) {
+			Comparator<LeaderboardEntry> order = order(category);
+			List<LeaderboardEntry> rows = new ArrayList<>(rankings.get(category));
+			for (LeaderboardEntry row : removed) {
+				rows.remove(Collections.binarySearch(rows, row, order));
+			}
+			for (LeaderboardEntry row : added) {
+				// Players are unique, so a new row is never found and this gives its place
+				rows.add(-Collections.binarySearch(rows, row, order) - 1, row);
+			}
+			ranked.put(category, Collections.unmodifiableList(rows));
+		}
+		return Collections.unmodifiableMap(ranked);
+	}
+
+	/**
+	 * Gets the order of a ranking
+	 *
+	 * @param category
+	 * @return comparator, best first
+	 */
+	private static Comparator<LeaderboardEntry> order(Category category) {
+		switch (category) {
+		case FASTEST_SOLVE:
+			return BY_FASTEST_SOLVE;
+		case LONGEST_STREAK:
+			return BY_LONGEST_STREAK;
+		default:
+			return BY_FEWEST_GUESSES;
+		}
+	}
+
+	/**
+	 * Sorts a copy of rows
+	 *
+	 * @param rows
+	 * @param order, best first
+	 * @return unmodifiable sorted list
+	 */
+	private static List<LeaderboardEntry> sorted(LeaderboardEntry[] rows, Comparator<LeaderboardEntry> order) {
+		LeaderboardEntry[] copy = rows.clone();
+		Arrays.sort(copy, order);
+		return Collections.unmodifiableList(Arrays.asList(copy));
+	}
+
+	/**
+	 * Gets when the snapshot was taken
+	 *
+	 * @return epoch milliseconds, or 0 before the first snapshot
+	 */
+	public long getTakenMillis() {
+		return takenMillis;
+	}
+
+	/**
+	 * Gets the number of players with a finished game
+	 *
+	 * @return player count
+	 */
+	public int getPlayerCount() {
+		return rankings.get(Category.FEWEST_GUESSES).size();
+	}
+
+	/**
+	 * Gets the best players over every word
+	 *
+	 * @param category to rank by
+	 * @param most players to return
+	 * @return unmodifiable list, best first
+	 */
+	public List<LeaderboardEntry> top(Category category, int k) {
+		return front(rankings.get(category), k);
+	}
+
+	/**
+	 * Gets the best players at one secret word
+	 *
+	 * @param packed secret word
+	 * @param category to rank by
+	 * @param most players to return
+	 * @return unmodifiable list, best first, empty if nobody has played the word
+	 */
+	public List<LeaderboardEntry> topForWord(long secret, Category category, int k) {
+		Map<Category, List<LeaderboardEntry>> word = wordRankings.get(secret);
+		return word == null ? Collections.emptyList() : front(word.get(category), k);
+	}
+
+	/**
+	 * Gets a view of the front of a ranking
+	 *
+	 * @param ranking
+	 * @param most rows
+	 * @return view of up to k rows
+	 */
+	private static List<LeaderboardEntry> front(List<LeaderboardEntry> ranking, int k) {
+		return ranking.subList(0, Math.max(0, Math.min(k, ranking.size())));
+	}
+
+	/**
+	 * Gets the rankings over every word, for the next snapshot to reuse
+	 *
+	 * @return ranking of each category
+	 */
+	Map<Category, List<LeaderboardEntry>> getRankings() {
+		return rankings;
+	}
+
+	/**
+	 * Gets the rankings of every word, for the next snapshot to reuse
+	 *
+	 * @return rankings of each secret word
+	 */
+	Map<Long, Map<Category, List<LeaderboardEntry>>> getWordRankings() {
+		return wordRankings;
+	}
+
+}
@@ -0,0 +1,199 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays games against a local GameServer from many threads and reports
+ * guesses per second and guess latency percentiles. When no server URL is
+ * given it starts one in the same JVM on a free port.
+ *
+ * Usage: LoadGenerator [threads] [seconds] [server url]
+ *
+ * @author Max Morhardt
+ */
+public final class LoadGenerator {
+
+	// Defaults for the command line
+	private static final int DEFAULT_THREADS = 64;
+	private static final int DEFAULT_SECONDS = 10;
+	private static final String DEFAULT_WORD_LIST_PATH = "resources/word_list.txt";
+
+	// Response parsing
+	private static final String ID_FIELD = "\"id\":\"";
+	private static final String STATUS_FIELD = "\"status\":\"";
+	private static final String IN_PROGRESS = "IN_PROGRESS";
+	private static final String POST = "POST";
+	private final String baseUrl;
+	private final WordDictionary dictionary;
+	private final LongAdder errors = new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param base url of the server, such as http://localhost:8080
+	 * @param dictionary to pick guesses from
+	 */
+	public LoadGenerator(String baseUrl, WordDictionary dictionary) {
+		this.baseUrl = baseUrl;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Plays games from many threads until time runs out
+	 *
+	 * @param number of threads
+	 * @param time to run in nanoseconds
+	 * @return latency of every guess in nanoseconds, sorted
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public long[] run(int threads, long durationNanos) throws InterruptedException {
+		long deadline = System.nanoTime() + durationNanos;
+		long[][] latencies = new long[threads][];
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int worker = t;
+			workers[t] = new Thread(() -> latencies[worker] = play(deadline));
+			workers[t].start();
+		}
+		int total = 0;
+		for (int t = 0; t < threads; t++) {
+			workers[t].join();
+			total += latencies[t].length;
+		}
+		long[] all = new long[total];
+		int offset = 0;
+		for (long[] worker : latencies) {
+			System.arraycopy(worker, 0, all, offset, worker.length);
+			offset += worker.length;
+		}
+		Arrays.sort(all);
+		return all;
+	}
+
+	/**
+	 * Plays games on one thread until the deadline
+	 *
+	 * @param deadline from System.nanoTime
+	 * @return latency of every guess in nanoseconds
+	 */
+	private long[] play(long deadline) {
+		long[] latencies = new long[1024];
+		int count = 0;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			try {
+				String created = post(new URL(baseUrl + "/games"));
+				String id = field(created, ID_FIELD);
+				String guessUrl = baseUrl + "/games/" + id + "/guesses?word=";
+				boolean inProgress = true;
+				while (inProgress && System.nanoTime() < deadline) {
+					URL url = new URL(guessUrl + dictionary.getWord(random.nextInt(dictionary.size())));
+					long start = System.nanoTime();
+					String response = post(url);
+					long latency = System.nanoTime() - start;
+					if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+					latencies[count++] = latency;
+					inProgress = IN_PROGRESS.equals(field(response, STATUS_FIELD));
+				}
+			} catch (IOException e) {
+				errors.increment();
+			}
+		}
+		return Arrays.copyOf(latencies, count);
+	}
+
+	/**
+	 * Sends a POST with no body over a kept alive connection and reads the response
+	 *
+	 * @param url
+	 * @return body
+	 * @throws IOException if the request failed or was rejected
+	 */
+	private static String post(URL url) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod(POST);
+		int status = connection.getResponseCode();
+		try (InputStream in = status >= 300 ? connection.getErrorStream() : connection.getInputStream()) {
+			String body = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+			if (status >= 300) {
+				throw new IOException("HTTP " + status + ": " + body);
+			}
+			return body;
+		}
+	}
+
+	/**
+	 * Reads a string field out of a json response
+	 *
+	 * @param json
+	 * @param field name with its opening quote
+	 * @return value
+	 */
+	private static String field(String json, String field) {
+		int start = json.indexOf(field) + field.length();
+		return json.substring(start, json.indexOf('"', start));
+	}
+
+	/**
+	 * Gets a percentile of sorted latencies
+	 *
+	 * @param sorted latencies
+	 * @param percentile from 0 to 100
+	 * @return latency in nanoseconds
+	 */
+	private static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) return 0;
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	/**
+	 * Main method
+	 *
+	 * @param args threads, seconds, and server url
+	 * @throws Exception if the server could not be started
+	 */
+	public static void main(String[] args) throws Exception {
+		GameServer.enableNoDelay();
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+		GameEngine engine = GameEngine.forWordList(DEFAULT_WORD_LIST_PATH);
+		GameServer server = null;
+		String baseUrl;
+		if (args.length > 2) {
+			baseUrl = args[2];
+		} else {
+			server = new GameServer(engine, 0);
+			server.start();
+			baseUrl = "http://localhost:" + server.getPort();
+		}
+		LoadGenerator generator = new LoadGenerator(baseUrl, engine.getDictionary());
+		long start = System.nanoTime();
+		long[] latencies = generator.run(threads, seconds * 1_000_000_000L);
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		System.out.printf(Locale.ROOT, "Guesses: %d in %.2f s (%.0f guesses/s) with %d threads%n", latencies.length,
+				elapsed, latencies.length / elapsed, threads);
+		System.out.printf(Locale.ROOT, "Latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+				percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6,
+				latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+		System.out.printf(Locale.ROOT, "Errors: %d%n", generator.errors.sum());
+		if (server != null) {
+			SessionStore sessions = server.getSessions();
+			System.out.printf(Locale.ROOT, "Sessions: %d held, %d hits, %d misses, %d evictions%n", sessions.size(),
+					sessions.getHits(), sessions.getMisses(), sessions.getEvictions());
+			Metrics metrics = Metrics.get();
+			System.out.printf(Locale.ROOT, "Server scoring p50: %d ns, p99: %d ns, invalid guesses: %.1f%%%n",
+					metrics.getScoringP50Nanos(), metrics.getScoringP99Nanos(), metrics.getInvalidGuessRate() * 100);
+			server.stop();
+		}
+	}
+
+}
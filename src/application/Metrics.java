@@ -0,0 +1,214 @@
+package application;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * In process counters and latency histograms for the game, shared by every
+ * engine and session in the JVM. Readable through JMX once registered, and
+ * written to the file named by the wordle.metrics.file system property when
+ * the game or server stops.
+ *
+ * @author Max Morhardt
+ */
+public final class Metrics implements MetricsMXBean {
+
+	// Where the metrics are registered and dumped
+	public static final String OBJECT_NAME = "application:type=Metrics";
+	public static final String DUMP_FILE_PROPERTY = "wordle.metrics.file";
+
+	private static final Metrics INSTANCE = new Metrics();
+
+	private volatile long startNanos = System.nanoTime();
+	private final LongAdder guesses = new LongAdder();
+	private final LongAdder invalidGuesses = new LongAdder();
+	private final LongAdder gamesWon = new LongAdder();
+	private final LongAdder gamesLost = new LongAdder();
+	private final LatencyHistogram scoringLatency = new LatencyHistogram();
+	private final LatencyHistogram repaintLatency = new LatencyHistogram();
+
+	/**
+	 * Constructor, use get for the shared metrics
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Gets the metrics shared by the JVM
+	 *
+	 * @return metrics
+	 */
+	public static Metrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers the shared metrics with the platform MBean server, doing
+	 * nothing if they are already registered
+	 */
+	public static void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+		} catch (InstanceAlreadyExistsException e) {
+			// Already readable
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Records a guess that was validated and scored
+	 *
+	 * @param time taken in nanoseconds
+	 */
+	public void recordGuess(long nanos) {
+		guesses.increment();
+		scoringLatency.record(nanos);
+	}
+
+	/**
+	 * Records a guess rejected as not in the word list
+	 */
+	public void recordInvalidGuess() {
+		invalidGuesses.increment();
+	}
+
+	/**
+	 * Records the end of a game
+	 *
+	 * @param if the game was won
+	 */
+	public void recordGameEnded(boolean won) {
+		if (won) {
+			gamesWon.increment();
+		} else {
+			gamesLost.increment();
+		}
+	}
+
+	/**
+	 * Records a repaint of the grid or keyboard
+	 *
+	 * @param time taken in nanoseconds
+	 */
+	public void recordRepaint(long nanos) {
+		repaintLatency.record(nanos);
+	}
+
+	@Override
+	public long getGuesses() {
+		return guesses.sum();
+	}
+
+	@Override
+	public long getInvalidGuesses() {
+		return invalidGuesses.sum();
+	}
+
+	@Override
+	public double getInvalidGuessRate() {
+		long invalid = invalidGuesses.sum();
+		long total = invalid + guesses.sum();
+		return total == 0 ? 0 : (double) invalid / total;
+	}
+
+	@Override
+	public double getGuessesPerSecond() {
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		return seconds <= 0 ? 0 : guesses.sum() / seconds;
+	}
+
+	@Override
+	public long getGamesWon() {
+		return gamesWon.sum();
+	}
+
+	@Override
+	public long getGamesLost() {
+		return gamesLost.sum();
+	}
+
+	@Override
+	public long getScoringP50Nanos() {
+		return scoringLatency.percentile(50);
+	}
+
+	@Override
+	public long getScoringP99Nanos() {
+		return scoringLatency.percentile(99);
+	}
+
+	@Override
+	public long getRepaintP50Nanos() {
+		return repaintLatency.percentile(50);
+	}
+
+	@Override
+	public long getRepaintP99Nanos() {
+		return repaintLatency.percentile(99);
+	}
+
+	@Override
+	public void dump(String path) throws IOException {
+		StringBuilder text = new StringBuilder(512);
+		text.append("# Wordle metrics at ").append(Instant.now()).append('\n');
+		append(text, "guesses", getGuesses());
+		append(text, "invalidGuesses", getInvalidGuesses());
+		append(text, "invalidGuessRate", String.format(Locale.ROOT, "%.4f", getInvalidGuessRate()));
+		append(text, "guessesPerSecond", String.format(Locale.ROOT, "%.1f", getGuessesPerSecond()));
+		append(text, "gamesWon", getGamesWon());
+		append(text, "gamesLost", getGamesLost());
+		append(text, "scoringP50Nanos", getScoringP50Nanos());
+		append(text, "scoringP99Nanos", getScoringP99Nanos());
+		append(text, "repaintP50Nanos", getRepaintP50Nanos());
+		append(text, "repaintP99Nanos", getRepaintP99Nanos());
+		Files.write(Paths.get(path), text.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes every metric to the file named by the dump file property, if
+	 * it is set
+	 */
+	public void dumpIfRequested() {
+		String path = System.getProperty(DUMP_FILE_PROPERTY);
+		if (path == null || path.isEmpty()) return;
+		try {
+			dump(path);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public void reset() {
+		startNanos = System.nanoTime();
+		guesses.reset();
+		invalidGuesses.reset();
+		gamesWon.reset();
+		gamesLost.reset();
+		scoringLatency.reset();
+		repaintLatency.reset();
+	}
+
+	/**
+	 * Adds one metric line to a dump
+	 *
+	 * @param text of the dump
+	 * @param name of the metric
+	 * @param value of the metric
+	 */
+	private static void append(StringBuilder text, String name, Object value) {
+		text.append(name).append('=').append(value).append('\n');
+	}
+
+}
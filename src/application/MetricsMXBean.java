@@ -0,0 +1,96 @@
+package application;
+
+import java.io.IOException;
+
+/**
+ * Management interface for reading game metrics through JMX, for example
+ * from JConsole or Mission Control under application:type=Metrics
+ *
+ * @author Max Morhardt
+ */
+public interface MetricsMXBean {
+
+	/**
+	 * Gets the number of guesses accepted
+	 *
+	 * @return guesses
+	 */
+	long getGuesses();
+
+	/**
+	 * Gets the number of guesses rejected as not in the word list
+	 *
+	 * @return invalid guesses
+	 */
+	long getInvalidGuesses();
+
+	/**
+	 * Gets the share of guesses rejected as not in the word list
+	 *
+	 * @return rate from 0 to 1
+	 */
+	double getInvalidGuessRate();
+
+	/**
+	 * Gets the accepted guesses per second since the metrics started
+	 *
+	 * @return guesses per second
+	 */
+	double getGuessesPerSecond();
+
+	/**
+	 * Gets the number of games won
+	 *
+	 * @return games won
+	 */
+	long getGamesWon();
+
+	/**
+	 * Gets the number of games lost
+	 *
+	 * @return games lost
+	 */
+	long getGamesLost();
+
+	/**
+	 * Gets the median time to validate and score a guess
+	 *
+	 * @return latency in nanoseconds
+	 */
+	long getScoringP50Nanos();
+
+	/**
+	 * Gets the 99th percentile time to validate and score a guess
+	 *
+	 * @return latency in nanoseconds
+	 */
+	long getScoringP99Nanos();
+
+	/**
+	 * Gets the median time to repaint the grid or keyboard
+	 *
+	 * @return latency in nanoseconds
+	 */
+	long getRepaintP50Nanos();
+
+	/**
+	 * Gets the 99th percentile time to repaint the grid or keyboard
+	 *
+	 * @return latency in nanoseconds
+	 */
+	long getRepaintP99Nanos();
+
+	/**
+	 * Writes every metric to a file
+	 *
+	 * @param path of the file, replaced if it exists
+	 * @throws IOException if the file could not be written
+	 */
+	void dump(String path) throws IOException;
+
+	/**
+	 * Clears every counter and histogram
+	 */
+	void reset();
+
+}
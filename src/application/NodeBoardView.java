@@ -0,0 +1,104 @@
+package application;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.layout.GridPane;
+
+/**
+ * Board drawn as a grid of Wordle rectangles, three scene graph nodes for
+ * each cell
+ *
+ * @author Max Morhardt
+ */
+public class NodeBoardView implements BoardView {
+
+	// Attributes
+	private final Pos GRID_POSITION = Pos.CENTER;
+
+	// Variables
+	private Theme theme;
+	private WordleRectangle[][] rectangles;
+	private GridPane grid;
+	// Rows written to since the last reset, the only ones a reset needs to touch
+	private int usedRows;
+
+	/**
+	 * Constructor
+	 *
+	 * @param number of letters in a word
+	 * @param number of guesses in a game
+	 * @param width and height of each rectangle
+	 * @param space between the rectangles
+	 * @param theme giving the colors of the rectangles
+	 */
+	public NodeBoardView(int wordLength, int numGuesses, double size, double spacing, Theme theme) {
+		this.theme = theme;
+		rectangles = new WordleRectangle[wordLength][numGuesses];
+		grid = new GridPane();
+		for (int i = 0; i < wordLength; i++) {
+			for (int j = 0; j < numGuesses; j++) {
+				WordleRectangle wordleRect = new WordleRectangle(i, j, size);
+				wordleRect.setStartingColors(theme.getFill(EMPTY), theme.getBorderColor());
+				wordleRect.setTextFill(theme.getTextColor(EMPTY));
+				rectangles[i][j] = wordleRect;
+				grid.add(wordleRect.getRectWithText(), i, j);
+			}
+		}
+		// Aligns the grid in the center and adds space between the rectangles
+		grid.setAlignment(GRID_POSITION);
+		grid.setHgap(spacing);
+		grid.setVgap(spacing);
+	}
+
+	/**
+	 * Gets the grid holding the rectangles
+	 *
+	 * @return grid pane
+	 */
+	@Override
+	public Node getNode() {
+		return grid;
+	}
+
+	/**
+	 * Sets the letter shown in one rectangle
+	 *
+	 * @param column of the letter
+	 * @param row of the guess
+	 * @param text, empty to clear it
+	 */
+	@Override
+	public void setText(int column, int row, String text) {
+		rectangles[column][row].setText(text);
+		usedRows = Math.max(usedRows, row + 1);
+	}
+
+	/**
+	 * Sets the result shown by one rectangle
+	 *
+	 * @param column of the letter
+	 * @param row of the guess
+	 * @param result HIT, CONTAINS or MISS, or EMPTY
+	 */
+	@Override
+	public void setResult(int column, int row, int result) {
+		rectangles[column][row].setRectFill(theme.getFill(result));
+		rectangles[column][row].setTextFill(theme.getTextColor(result));
+		usedRows = Math.max(usedRows, row + 1);
+	}
+
+	/**
+	 * Resets the rows that were written to back to their starting state
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < rectangles.length; i++) {
+			for (int j = 0; j < usedRows; j++) {
+				rectangles[i][j].reset();
+				rectangles[i][j].setTextFill(theme.getTextColor(EMPTY));
+			}
+		}
+		usedRows = 0;
+	}
+
+}
@@ -0,0 +1,268 @@
+package application;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Games played, wins, streaks, and the guess distribution of the player,
+ * kept in a small file of two fixed size slots. Each update writes the
+ * whole state with a higher sequence number and a checksum into the slot
+ * not holding the latest state, so a crash mid write leaves the other slot
+ * to fall back on. Updates are applied in memory at once and written on a
+ * background thread, so the game never waits on the disk.
+ *
+ * Slot layout, little endian:
+ *   0   int      magic
+ *   4   int      version
+ *   8   long     sequence number
+ *   16  int      games played
+ *   20  int      games won
+ *   24  int      current streak
+ *   28  int      max streak
+ *   32  int[24]  games won by number of guesses, from 1
+ *   128 int      CRC32 of bytes 0 to 127
+ *   132          zero padding to the end of the 256 byte slot
+ *
+ * @author Max Morhardt
+ */
+public final class PlayerStats implements AutoCloseable {
+
+	// Default file for the game
+	public static final String DEFAULT_PATH = "stats.dat";
+
+	// Layout
+	public static final int MAX_GUESSES = GameEngine.MAX_NUM_GUESSES;
+	private static final int MAGIC = 0x57535453;
+	private static final int VERSION = 1;
+	private static final int DISTRIBUTION_OFFSET = 32;
+	private static final int CHECKED_SIZE = DISTRIBUTION_OFFSET + MAX_GUESSES * Integer.BYTES;
+	private static final int SLOT_SIZE = 256;
+	private static final int NUM_SLOTS = 2;
+
+	private final FileChannel channel;
+	private final ExecutorService writer;
+	private long sequence;
+	private int played;
+	private int won;
+	private int currentStreak;
+	private int maxStreak;
+	private final int[] distribution = new int[MAX_GUESSES];
+
+	/**
+	 * Constructor
+	 *
+	 * @param channel of the open file
+	 */
+	private PlayerStats(FileChannel channel) {
+		this.channel = channel;
+		this.writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "stats-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Opens the stats file, creating it if needed, and reads the latest
+	 * intact slot
+	 *
+	 * @param path of the file
+	 * @return stats
+	 * @throws IOException if the file could not be opened or read
+	 */
+	public static PlayerStats open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		PlayerStats stats = new PlayerStats(channel);
+		ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < NUM_SLOTS; i++) {
+			slot.clear();
+			while (slot.hasRemaining() && channel.read(slot, (long) i * SLOT_SIZE + slot.position()) > 0) {
+				// Keep reading until the slot is full or the file ends
+			}
+			if (slot.position() == SLOT_SIZE && isIntact(slot) && slot.getLong(8) > stats.sequence) {
+				stats.load(slot);
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Adds a finished game
+	 *
+	 * @param if the game was won
+	 * @param number of guesses made
+	 */
+	public synchronized void record(boolean gameWon, int guesses) {
+		played++;
+		if (gameWon) {
+			won++;
+			currentStreak++;
+			maxStreak = Math.max(maxStreak, currentStreak);
+			distribution[Math.min(Math.max(guesses, 1), MAX_GUESSES) - 1]++;
+		} else {
+			currentStreak = 0;
+		}
+		sequence++;
+		// Written to the slot that does not hold the latest state
+		ByteBuffer slot = store();
+		long position = (sequence % NUM_SLOTS) * SLOT_SIZE;
+		writer.execute(() -> write(slot, position));
+	}
+
+	/**
+	 * Waits for pending writes and closes the file
+	 */
+	@Override
+	public void close() {
+		writer.shutdown();
+		try {
+			writer.awaitTermination(5, TimeUnit.SECONDS);
+			channel.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gets the number of games played
+	 *
+	 * @return games played
+	 */
+	public synchronized int getPlayed() {
+		return played;
+	}
+
+	/**
+	 * Gets the number of games won
+	 *
+	 * @return games won
+	 */
+	public synchronized int getWon() {
+		return won;
+	}
+
+	/**
+	 * Gets the share of games won
+	 *
+	 * @return percentage from 0 to 100
+	 */
+	public synchronized int getWinPercentage() {
+		return played == 0 ? 0 : Math.round(won * 100f / played);
+	}
+
+	/**
+	 * Gets the number of games won in a row up to the last game
+	 *
+	 * @return current streak
+	 */
+	public synchronized int getCurrentStreak() {
+		return currentStreak;
+	}
+
+	/**
+	 * Gets the most games ever won in a row
+	 *
+	 * @return max streak
+	 */
+	public synchronized int getMaxStreak() {
+		return maxStreak;
+	}
+
+	/**
+	 * Gets the number of games won with a number of guesses
+	 *
+	 * @param number of guesses from 1
+	 * @return games won
+	 */
+	public synchronized int getWonIn(int guesses) {
+		return distribution[guesses - 1];
+	}
+
+	/**
+	 * Writes a slot and flushes it to disk, on the writer thread
+	 *
+	 * @param slot bytes
+	 * @param position of the slot in the file
+	 */
+	private void write(ByteBuffer slot, long position) {
+		try {
+			while (slot.hasRemaining()) {
+				channel.write(slot, position + slot.position());
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Copies the state into a new slot with its checksum
+	 *
+	 * @return slot ready to write
+	 */
+	private ByteBuffer store() {
+		ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		slot.putInt(0, MAGIC);
+		slot.putInt(4, VERSION);
+		slot.putLong(8, sequence);
+		slot.putInt(16, played);
+		slot.putInt(20, won);
+		slot.putInt(24, currentStreak);
+		slot.putInt(28, maxStreak);
+		for (int i = 0; i < MAX_GUESSES; i++) {
+			slot.putInt(DISTRIBUTION_OFFSET + i * Integer.BYTES, distribution[i]);
+		}
+		slot.putInt(CHECKED_SIZE, checksum(slot));
+		return slot;
+	}
+
+	/**
+	 * Reads the state from an intact slot
+	 *
+	 * @param slot bytes
+	 */
+	private void load(ByteBuffer slot) {
+		sequence = slot.getLong(8);
+		played = slot.getInt(16);
+		won = slot.getInt(20);
+		currentStreak = slot.getInt(24);
+		maxStreak = slot.getInt(28);
+		for (int i = 0; i < MAX_GUESSES; i++) {
+			distribution[i] = slot.getInt(DISTRIBUTION_OFFSET + i * Integer.BYTES);
+		}
+	}
+
+	/**
+	 * Checks a slot was fully written by this version
+	 *
+	 * @param slot bytes
+	 * @return if the slot can be trusted
+	 */
+	private static boolean isIntact(ByteBuffer slot) {
+		return slot.getInt(0) == MAGIC && slot.getInt(4) == VERSION && slot.getInt(CHECKED_SIZE) == checksum(slot);
+	}
+
+	/**
+	 * Computes the checksum of a slot
+	 *
+	 * @param slot bytes
+	 * @return CRC32 of the checked bytes
+	 */
+	private static int checksum(ByteBuffer slot) {
+		CRC32 crc = new CRC32();
+		crc.update(slot.duplicate().position(0).limit(CHECKED_SIZE));
+		return (int) crc.getValue();
+	}
+
+}
@@ -0,0 +1,268 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded store of game sessions by id for serving many players. The store
+ * is split into stripes, each an access ordered map behind its own lock,
+ * so lookups of games in different stripes never contend. Each stripe
+ * evicts its least recently used game when full, and games that sit idle
+ * longer than the time to live are evicted when they are next looked up or
+ * swept.
+ *
+ * @author Max Morhardt
+ */
+public final class SessionStore {
+
+	// Defaults
+	public static final int DEFAULT_STRIPES = 64;
+
+	private final Stripe[] stripes;
+	private final int stripeMask;
+	private final int maxPerStripe;
+	private final long idleTtlNanos;
+	private final AtomicLong nextId = new AtomicLong(1);
+	private volatile Consumer<GameSession> evictionListener = session -> {};
+
+	// Counters
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * A game with the last time it was used
+	 */
+	private static final class Entry {
+		final GameSession session;
+		long lastAccess;
+
+		Entry(GameSession session, long lastAccess) {
+			this.session = session;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * One lock and the games whose ids hash to it, least recently used first
+	 */
+	private static final class Stripe {
+		final ReentrantLock lock = new ReentrantLock();
+		final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maximum number of games held
+	 * @param idle time to live in milliseconds
+	 */
+	public SessionStore(int maxSize, long idleTtlMillis) {
+		this(maxSize, idleTtlMillis, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maximum number of games held
+	 * @param idle time to live in milliseconds
+	 * @param number of stripes, rounded up to a power of two
+	 */
+	public SessionStore(int maxSize, long idleTtlMillis, int numStripes) {
+		int count = Integer.highestOneBit(Math.max(1, numStripes - 1) << 1);
+		count = Math.min(count, Integer.highestOneBit(Math.max(1, maxSize)));
+		stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe();
+		}
+		stripeMask = count - 1;
+		maxPerStripe = Math.max(1, (maxSize + count - 1) / count);
+		idleTtlNanos = idleTtlMillis * 1_000_000L;
+	}
+
+	/**
+	 * Sets what is told about each evicted game, called after the game's
+	 * stripe is unlocked
+	 *
+	 * @param listener for evicted games
+	 */
+	public void setEvictionListener(Consumer<GameSession> evictionListener) {
+		this.evictionListener = evictionListener;
+	}
+
+	/**
+	 * Adds a game, evicting the least recently used game of its stripe if
+	 * the stripe is full
+	 *
+	 * @param session to hold
+	 * @return id of the game
+	 */
+	public long add(GameSession session) {
+		long id = nextId.getAndIncrement();
+		Stripe stripe = stripeFor(id);
+		long now = System.nanoTime();
+		Entry evicted = null;
+		stripe.lock.lock();
+		try {
+			Map<Long, Entry> entries = stripe.entries;
+			if (entries.size() >= maxPerStripe) {
+				Iterator<Entry> eldest = entries.values().iterator();
+				evicted = eldest.next();
+				eldest.remove();
+				evictions.increment();
+			}
+			entries.put(id, new Entry(session, now));
+		} finally {
+			stripe.lock.unlock();
+		}
+		if (evicted != null) {
+			evictionListener.accept(evicted.session);
+		}
+		return id;
+	}
+
+	/**
+	 * Gets a game and marks it as used
+	 *
+	 * @param id of the game
+	 * @return session or null if it was never added, removed, or evicted
+	 */
+	public GameSession get(long id) {
+		Stripe stripe = stripeFor(id);
+		long now = System.nanoTime();
+		Entry entry;
+		stripe.lock.lock();
+		try {
+			entry = stripe.entries.get(id);
+			if (entry == null) {
+				misses.increment();
+				return null;
+			}
+			if (now - entry.lastAccess <= idleTtlNanos) {
+				entry.lastAccess = now;
+				hits.increment();
+				return entry.session;
+			}
+			stripe.entries.remove(id);
+			evictions.increment();
+			misses.increment();
+		} finally {
+			stripe.lock.unlock();
+		}
+		evictionListener.accept(entry.session);
+		return null;
+	}
+
+	/**
+	 * Removes a game
+	 *
+	 * @param id of the game
+	 * @return session or null if it was not held
+	 */
+	public GameSession remove(long id) {
+		Stripe stripe = stripeFor(id);
+		stripe.lock.lock();
+		try {
+			Entry entry = stripe.entries.remove(id);
+			return entry == null ? null : entry.session;
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Evicts every game that has been idle longer than the time to live,
+	 * locking one stripe at a time
+	 *
+	 * @return number of games evicted
+	 */
+	public int evictExpired() {
+		List<GameSession> evicted = new ArrayList<>();
+		for (Stripe stripe : stripes) {
+			long now = System.nanoTime();
+			stripe.lock.lock();
+			try {
+				// Least recently used first, so stop at the first game still live
+				Iterator<Entry> iterator = stripe.entries.values().iterator();
+				while (iterator.hasNext()) {
+					Entry entry = iterator.next();
+					if (now - entry.lastAccess <= idleTtlNanos) break;
+					iterator.remove();
+					evicted.add(entry.session);
+				}
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		evictions.add(evicted.size());
+		Consumer<GameSession> listener = evictionListener;
+		for (GameSession session : evicted) {
+			listener.accept(session);
+		}
+		return evicted.size();
+	}
+
+	/**
+	 * Gets the number of games held
+	 *
+	 * @return size
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				size += stripe.entries.size();
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the number of lookups that found a game
+	 *
+	 * @return hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of lookups that found no game
+	 *
+	 * @return misses
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of games evicted for size or idle time
+	 *
+	 * @return evictions
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Picks the stripe of an id
+	 *
+	 * @param id of a game
+	 * @return stripe
+	 */
+	private Stripe stripeFor(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return stripes[(int) (h >>> 32) & stripeMask];
+	}
+
+}
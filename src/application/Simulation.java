@@ -0,0 +1,151 @@
+package application;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Command line mode that plays every word in the word list as the secret
+ * word with a guessing strategy, across all cores, and prints how well the
+ * strategy did and how fast the engine ran. No JavaFX toolkit is started.
+ *
+ * Usage: Simulation [entropy|random] [word list path]
+ *
+ * @author Max Morhardt
+ */
+public final class Simulation {
+
+	// Defaults for the command line
+	private static final String DEFAULT_WORD_LIST_PATH = "resources/word_list.txt";
+	private static final String ENTROPY_STRATEGY = "entropy";
+	private static final String RANDOM_STRATEGY = "random";
+
+	// Number of hardest words printed
+	private static final int NUM_WORST_WORDS = 10;
+
+	// Error text
+	private static final String UNKNOWN_STRATEGY_TEXT = "Unknown strategy: ";
+
+	private final GameEngine engine;
+	private final GuessStrategy strategy;
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine to play games with
+	 * @param strategy choosing every guess
+	 */
+	public Simulation(GameEngine engine, GuessStrategy strategy) {
+		this.engine = engine;
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Plays every secret word once in parallel
+	 *
+	 * @return guesses used for each secret word, more than the number of
+	 *         guesses in a game if it was lost
+	 */
+	public int[] run() {
+		return IntStream.range(0, engine.getDictionary().size()).parallel().map(this::play).toArray();
+	}
+
+	/**
+	 * Plays one game to the end
+	 *
+	 * @param index of the secret word in the dictionary
+	 * @return guesses used, or one more than allowed if the game was lost
+	 */
+	public int play(int secretIndex) {
+		GameSession session = engine.newSession(secretIndex);
+		while (!session.isOver()) {
+			// A strategy that guesses a word outside the list can never finish
+			if (session.submitGuess(strategy.nextGuess(session)) == GameSession.NOT_SUBMITTED) {
+				break;
+			}
+		}
+		return session.isWon() ? session.getGuessCount() : engine.getNumGuesses() + 1;
+	}
+
+	/**
+	 * Creates a strategy by name
+	 *
+	 * @param name of the strategy
+	 * @param engine the strategy plays with
+	 * @return strategy
+	 */
+	public static GuessStrategy createStrategy(String name, GameEngine engine) {
+		switch (name) {
+		case ENTROPY_STRATEGY:
+			return new EntropySolver(engine);
+		case RANDOM_STRATEGY:
+			// Any answer that still agrees with every result so far
+			EntropySolver solver = new EntropySolver(engine);
+			return session -> {
+				int[] candidates = solver.findCandidates(session);
+				int index = candidates[ThreadLocalRandom.current().nextInt(candidates.length)];
+				return engine.getDictionary().get(index);
+			};
+		default:
+			throw new IllegalArgumentException(UNKNOWN_STRATEGY_TEXT + name);
+		}
+	}
+
+	/**
+	 * Prints win rate, guess histogram, hardest words, and throughput
+	 *
+	 * @param guesses used for each secret word
+	 * @param time taken in nanoseconds
+	 */
+	private void printReport(int[] guessesUsed, long elapsedNanos) {
+		int numGuesses = engine.getNumGuesses();
+		int[] histogram = new int[numGuesses + 2];
+		long totalWinningGuesses = 0;
+		int wins = 0;
+		for (int used : guessesUsed) {
+			histogram[used]++;
+			if (used <= numGuesses) {
+				wins++;
+				totalWinningGuesses += used;
+			}
+		}
+		int games = guessesUsed.length;
+		double seconds = elapsedNanos / 1e9;
+		System.out.printf(Locale.ROOT, "Games played: %d%n", games);
+		System.out.printf(Locale.ROOT, "Win rate: %.2f%%%n", 100.0 * wins / games);
+		System.out.printf(Locale.ROOT, "Average guesses in a win: %.3f%n", wins == 0 ? 0.0 : (double) totalWinningGuesses / wins);
+		System.out.println("Guess histogram:");
+		for (int used = 1; used < histogram.length; used++) {
+			String label = used <= numGuesses ? String.valueOf(used) : "X";
+			System.out.printf(Locale.ROOT, "  %s: %d%n", label, histogram[used]);
+		}
+		System.out.println("Hardest words:");
+		Integer[] order = new Integer[games];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, Comparator.comparingInt((Integer i) -> guessesUsed[i]).reversed());
+		for (int i = 0; i < Math.min(NUM_WORST_WORDS, games); i++) {
+			int used = guessesUsed[order[i]];
+			System.out.printf(Locale.ROOT, "  %s: %s%n", engine.getDictionary().getWord(order[i]),
+					used <= numGuesses ? String.valueOf(used) : "lost");
+		}
+		System.out.printf(Locale.ROOT, "Time: %.3f s (%.1f games/s)%n", seconds, games / seconds);
+	}
+
+	/**
+	 * Main method
+	 *
+	 * @param args strategy name and word list path
+	 */
+	public static void main(String[] args) {
+		String strategyName = args.length > 0 ? args[0] : ENTROPY_STRATEGY;
+		String wordListPath = args.length > 1 ? args[1] : DEFAULT_WORD_LIST_PATH;
+		GameEngine engine = GameEngine.forWordList(wordListPath);
+		Simulation simulation = new Simulation(engine, createStrategy(strategyName, engine));
+		long start = System.nanoTime();
+		int[] guessesUsed = simulation.run();
+		simulation.printReport(guessesUsed, System.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,181 @@
+package application;
+
+/**
+ * One change to a watched game, sent to spectators. Events are immutable
+ * so one event can be handed to every subscriber without copying. The
+ * secret word is only given once the game is over. Games are named by a
+ * watch id chosen for spectators, never by the id that plays the game.
+ *
+ * @author Max Morhardt
+ */
+public final class SpectatorEvent {
+
+	/**
+	 * What changed in the game
+	 */
+	public enum Type {
+		INPUT, GUESS, END, RESET
+	}
+
+	// Row of events that are not about one guess
+	public static final int NO_ROW = -1;
+
+	private final long gameId;
+	private final Type type;
+	private final String text;
+	private final int row;
+	private final String result;
+	private final GameSession.Status status;
+
+	/**
+	 * Constructor
+	 *
+	 * @param watch id of the game
+	 * @param type of change
+	 * @param typed letters, guess, or secret word, depending on the type
+	 * @param row of the guess, or NO_ROW
+	 * @param result of the guess as a string such as "GYXXG", or null
+	 * @param status of the game after the change
+	 */
+	private SpectatorEvent(long gameId, Type type, String text, int row, String result, GameSession.Status status) {
+		this.gameId = gameId;
+		this.type = type;
+		this.text = text;
+		this.row = row;
+		this.result = result;
+		this.status = status;
+	}
+
+	/**
+	 * Makes an event for a letter typed or removed
+	 *
+	 * @param watch id of the game
+	 * @param session that changed
+	 * @return event holding the letters typed so far
+	 */
+	public static SpectatorEvent input(long gameId, GameSession session) {
+		char[] typed = new char[session.getInputLength()];
+		for (int i = 0; i < typed.length; i++) {
+			typed[i] = session.getInputLetter(i);
+		}
+		return new SpectatorEvent(gameId, Type.INPUT, new String(typed), NO_ROW, null, session.getStatus());
+	}
+
+	/**
+	 * Makes an event for a scored guess
+	 *
+	 * @param watch id of the game
+	 * @param session that changed
+	 * @param row of the guess
+	 * @param packed guess
+	 * @param result on the first board
+	 * @return event holding the guess and its result
+	 */
+	public static SpectatorEvent guess(long gameId, GameSession session, int row, long guess, int result) {
+		int length = session.getEngine().getWordLength();
+		return new SpectatorEvent(gameId, Type.GUESS, WordDictionary.unpack(guess, length), row,
+				Feedback.toString(result, length), session.getStatus());
+	}
+
+	/**
+	 * Makes an event for a game that was won or lost
+	 *
+	 * @param watch id of the game
+	 * @param session that ended
+	 * @return event holding the secret word
+	 */
+	public static SpectatorEvent end(long gameId, GameSession session) {
+		return new SpectatorEvent(gameId, Type.END, session.getSecretWord(), session.getGuessCount() - 1, null,
+				session.getStatus());
+	}
+
+	/**
+	 * Makes an event for a game that started over
+	 *
+	 * @param watch id of the game
+	 * @param session that was reset
+	 * @return event with no letters
+	 */
+	public static SpectatorEvent reset(long gameId, GameSession session) {
+		return new SpectatorEvent(gameId, Type.RESET, "", NO_ROW, null, session.getStatus());
+	}
+
+	/**
+	 * Gets the watch id of the game that changed
+	 *
+	 * @return watch id
+	 */
+	public long getGameId() {
+		return gameId;
+	}
+
+	/**
+	 * Gets what changed
+	 *
+	 * @return type
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the typed letters for INPUT, the guess for GUESS, the secret word
+	 * for END, and nothing for RESET
+	 *
+	 * @return text
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Gets the row of a GUESS, or the last row guessed for END
+	 *
+	 * @return row, or NO_ROW
+	 */
+	public int getRow() {
+		return row;
+	}
+
+	/**
+	 * Gets the result of a GUESS
+	 *
+	 * @return result such as "GYXXG", or null for other types
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	/**
+	 * Gets the progress of the game after the change
+	 *
+	 * @return status
+	 */
+	public GameSession.Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Writes the event as one line of json
+	 *
+	 * @return json
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder(96);
+		json.append("{\"game\":\"").append(gameId).append("\",\"type\":\"").append(type.name())
+				.append("\",\"text\":\"").append(text).append('"');
+		if (row != NO_ROW) {
+			json.append(",\"row\":").append(row);
+		}
+		if (result != null) {
+			json.append(",\"result\":\"").append(result).append('"');
+		}
+		return json.append(",\"status\":\"").append(status.name()).append("\"}").toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+}
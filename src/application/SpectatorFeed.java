@@ -0,0 +1,413 @@
+package application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the events of watched games to spectators, such as a lobby
+ * screen or a tournament display. The thread playing a game only queues
+ * each event; a task on an executor copies queued events into every
+ * subscriber's buffer a batch at a time, and events are handed to each
+ * subscriber as far as it has requested. A buffer never grows past its
+ * capacity, so a slow spectator loses events instead of holding up the
+ * game. What is lost depends on the subscriber's policy.
+ *
+ * @author Max Morhardt
+ */
+public final class SpectatorFeed implements Flow.Publisher<SpectatorEvent> {
+
+	/**
+	 * What a subscriber's buffer does with an event when it is full
+	 */
+	public enum OverflowPolicy {
+		// The new event is dropped, so the events kept are the oldest
+		DROP,
+		// The oldest event is dropped, so the events kept are the latest, and
+		// typing that has not been sent yet is replaced by newer typing in the same game
+		CONFLATE
+	}
+
+	// Defaults for subscribers that do not choose
+	public static final int DEFAULT_BUFFER_SIZE = 256;
+	public static final OverflowPolicy DEFAULT_POLICY = OverflowPolicy.DROP;
+
+	// Events published but not yet copied to subscribers, and how many are copied at once
+	private static final int PENDING_CAPACITY = 4096;
+	private static final int FAN_OUT_BATCH = 256;
+	// Events handed to one subscriber before its drain gives the executor to others
+	private static final int DRAIN_BATCH = 64;
+
+	// Error text
+	private static final String BUFFER_SIZE_ERROR_TEXT = "Buffer size must be positive, not ";
+	private static final String REQUEST_ERROR_TEXT = "Subscribers must request a positive number of events, not ";
+
+	private final Executor executor;
+	private final CopyOnWriteArrayList<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final ArrayBlockingQueue<SpectatorEvent> pending = new ArrayBlockingQueue<>(PENDING_CAPACITY);
+	private final AtomicBoolean fanningOut = new AtomicBoolean();
+	private final LongAdder published = new LongAdder();
+	private final LongAdder delivered = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private volatile boolean closed;
+
+	/**
+	 * Constructor for a feed that delivers on the common fork join pool
+	 */
+	public SpectatorFeed() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param executor that hands events to subscribers
+	 */
+	public SpectatorFeed(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds a subscriber with the default buffer size and policy
+	 *
+	 * @param subscriber
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super SpectatorEvent> subscriber) {
+		subscribe(subscriber, DEFAULT_BUFFER_SIZE, DEFAULT_POLICY);
+	}
+
+	/**
+	 * Adds a subscriber. It only gets events published after it subscribed.
+	 *
+	 * @param subscriber
+	 * @param most events held for the subscriber at once
+	 * @param policy when the buffer is full
+	 */
+	public void subscribe(Flow.Subscriber<? super SpectatorEvent> subscriber, int bufferSize, OverflowPolicy policy) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException(BUFFER_SIZE_ERROR_TEXT + bufferSize);
+		}
+		FeedSubscription subscription = new FeedSubscription(subscriber, bufferSize, policy);
+		// Told of its subscription before any event can reach it
+		subscriber.onSubscribe(subscription);
+		// A subscriber that cancelled or failed in onSubscribe is not kept. Cancelling and
+		// finishing mark it done under this lock before removing it, so either the mark
+		// is seen here or the removal comes after the add.
+		synchronized (subscription) {
+			if (subscription.done) return;
+			subscriptions.add(subscription);
+		}
+		if (closed) {
+			subscription.complete();
+		}
+	}
+
+	/**
+	 * Watches a game, publishing every change to it until the returned
+	 * listener is removed from the session
+	 *
+	 * @param id of the game given to spectators
+	 * @param session to watch
+	 * @return listener added to the session
+	 */
+	public GameListener watch(long gameId, GameSession session) {
+		GameListener listener = new GameListener() {
+			@Override
+			public void inputChanged(GameSession changed) {
+				publish(SpectatorEvent.input(gameId, changed));
+			}
+
+			@Override
+			public void guessSubmitted(GameSession changed, int row, long guess, int result) {
+				publish(SpectatorEvent.guess(gameId, changed, row, guess, result));
+			}
+
+			@Override
+			public void gameEnded(GameSession changed) {
+				publish(SpectatorEvent.end(gameId, changed));
+			}
+
+			@Override
+			public void gameReset(GameSession changed) {
+				publish(SpectatorEvent.reset(gameId, changed));
+			}
+		};
+		session.addListener(listener);
+		return listener;
+	}
+
+	/**
+	 * Queues an event for every subscriber without waiting for any of them.
+	 * If even the queue is full the event is dropped for everyone. Events
+	 * published after the feed is closed are ignored.
+	 *
+	 * @param event
+	 */
+	public void publish(SpectatorEvent event) {
+		if (closed) return;
+		published.increment();
+		if (!pending.offer(event)) {
+			dropped.add(subscriptions.size());
+			return;
+		}
+		startFanOut();
+	}
+
+	/**
+	 * Stops publishing. Each subscriber is completed once it has been handed
+	 * the events already published, as far as it requests them.
+	 */
+	public void close() {
+		closed = true;
+		startFanOut();
+	}
+
+	/**
+	 * Runs a fan out unless one is running already
+	 */
+	private void startFanOut() {
+		if (fanningOut.compareAndSet(false, true)) {
+			executor.execute(this::fanOut);
+		}
+	}
+
+	/**
+	 * Copies queued events into every subscriber's buffer, a batch of events
+	 * per subscriber at a time so each subscriber takes its lock and starts
+	 * a drain once per batch. Completes every subscriber after the last
+	 * event if the feed is closed.
+	 */
+	private void fanOut() {
+		List<SpectatorEvent> batch = new ArrayList<>(FAN_OUT_BATCH);
+		while (true) {
+			pending.drainTo(batch, FAN_OUT_BATCH);
+			if (batch.isEmpty()) {
+				if (closed) {
+					for (FeedSubscription subscription : subscriptions) {
+						subscription.complete();
+					}
+				}
+				fanningOut.set(false);
+				// An event queued after the drain but before the flag was cleared would be stranded
+				if (pending.isEmpty() || !fanningOut.compareAndSet(false, true)) return;
+				continue;
+			}
+			for (FeedSubscription subscription : subscriptions) {
+				subscription.offer(batch);
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of subscribers that have not cancelled or completed
+	 *
+	 * @return subscriber count
+	 */
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * Gets the number of events published
+	 *
+	 * @return event count, not multiplied by subscribers
+	 */
+	public long getPublished() {
+		return published.sum();
+	}
+
+	/**
+	 * Gets the number of events handed to subscribers
+	 *
+	 * @return total over every subscriber
+	 */
+	public long getDelivered() {
+		return delivered.sum();
+	}
+
+	/**
+	 * Gets the number of events a full buffer dropped or conflated
+	 *
+	 * @return total over every subscriber
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * One subscriber's buffer and demand. Its lock is only held to move events
+	 * in and out of the buffer, never while the subscriber runs, and at most
+	 * one drain runs at a time so the subscriber is called in order.
+	 */
+	private final class FeedSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super SpectatorEvent> subscriber;
+		private final int capacity;
+		private final OverflowPolicy policy;
+		private final ArrayDeque<SpectatorEvent> buffer;
+		// Guarded by this
+		private long demand;
+		private boolean draining;
+		private boolean completing;
+		private boolean done;
+		private Throwable error;
+
+		/**
+		 * Constructor
+		 *
+		 * @param subscriber
+		 * @param most events held at once
+		 * @param policy when the buffer is full
+		 */
+		private FeedSubscription(Flow.Subscriber<? super SpectatorEvent> subscriber, int capacity,
+				OverflowPolicy policy) {
+			this.subscriber = subscriber;
+			this.capacity = capacity;
+			this.policy = policy;
+			this.buffer = new ArrayDeque<>(Math.min(capacity, DEFAULT_BUFFER_SIZE));
+		}
+
+		/**
+		 * Adds events to the buffer, making room by the policy when it is full
+		 *
+		 * @param events in the order they were published
+		 */
+		private void offer(List<SpectatorEvent> events) {
+			synchronized (this) {
+				if (done || completing) return;
+				for (SpectatorEvent event : events) {
+					SpectatorEvent last = buffer.peekLast();
+					if (policy == OverflowPolicy.CONFLATE && last != null
+							&& last.getType() == SpectatorEvent.Type.INPUT && event.getType() == SpectatorEvent.Type.INPUT
+							&& last.getGameId() == event.getGameId()) {
+						// Each input event holds all of the typing, so the older one adds nothing
+						buffer.pollLast();
+						dropped.increment();
+					} else if (buffer.size() == capacity) {
+						dropped.increment();
+						if (policy == OverflowPolicy.DROP) continue;
+						buffer.pollFirst();
+					}
+					buffer.addLast(event);
+				}
+				if (!startDrain()) return;
+			}
+			executor.execute(this::drain);
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (done) return;
+				if (n <= 0) {
+					// Rule 3.9 of the reactive streams specification
+					error = new IllegalArgumentException(REQUEST_ERROR_TEXT + n);
+					buffer.clear();
+				} else {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				}
+				if (!startDrain()) return;
+			}
+			executor.execute(this::drain);
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				done = true;
+				buffer.clear();
+			}
+			subscriptions.remove(this);
+		}
+
+		/**
+		 * Completes the subscriber once its buffer is empty
+		 */
+		private void complete() {
+			synchronized (this) {
+				if (done) return;
+				completing = true;
+				if (!startDrain()) return;
+			}
+			executor.execute(this::drain);
+		}
+
+		/**
+		 * Checks if a drain should start, and marks it started. Must hold the
+		 * lock.
+		 *
+		 * @return if the caller should run a drain
+		 */
+		private boolean startDrain() {
+			if (draining || done) return false;
+			boolean canDeliver = demand > 0 && !buffer.isEmpty();
+			boolean canFinish = error != null || (completing && buffer.isEmpty());
+			if (!canDeliver && !canFinish) return false;
+			draining = true;
+			return true;
+		}
+
+		/**
+		 * Hands buffered events to the subscriber while it has demand, then
+		 * finishes it if it failed or the feed closed
+		 */
+		private void drain() {
+			for (int handed = 0;; handed++) {
+				SpectatorEvent event;
+				Throwable failure;
+				boolean finishing;
+				synchronized (this) {
+					failure = error;
+					finishing = failure != null || (completing && buffer.isEmpty());
+					if (finishing) {
+						done = true;
+						draining = false;
+						buffer.clear();
+						event = null;
+					} else if (demand == 0 || buffer.isEmpty()) {
+						draining = false;
+						return;
+					} else if (handed == DRAIN_BATCH) {
+						// Let other subscribers run, and carry on in a new task
+						event = null;
+					} else {
+						event = buffer.pollFirst();
+						demand--;
+					}
+				}
+				if (finishing) {
+					subscriptions.remove(this);
+					if (failure != null) {
+						subscriber.onError(failure);
+					} else {
+						subscriber.onComplete();
+					}
+					return;
+				}
+				if (event == null) {
+					executor.execute(this::drain);
+					return;
+				}
+				try {
+					subscriber.onNext(event);
+					delivered.increment();
+				} catch (RuntimeException e) {
+					// A subscriber that throws is cancelled, rule 2.13
+					cancel();
+					return;
+				}
+			}
+		}
+
+	}
+
+}
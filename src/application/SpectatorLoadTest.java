@@ -0,0 +1,177 @@
+package application;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays games on one thread at a steady rate of events while many
+ * spectators in the same JVM watch them through a SpectatorFeed, and
+ * reports how long the game thread spent per event and what the
+ * spectators got. Most spectators take every event; a few stall after
+ * one event, to show their buffers filling and dropping without holding up
+ * the game. Stalled spectators never complete, so only the others are
+ * waited for once the games are over.
+ *
+ * Usage: SpectatorLoadTest [subscribers] [games] [delivery threads] [events per second]
+ *
+ * @author Max Morhardt
+ */
+public final class SpectatorLoadTest {
+
+	// Defaults for the command line
+	private static final int DEFAULT_SUBSCRIBERS = 10_000;
+	private static final int DEFAULT_GAMES = 200;
+	private static final int DEFAULT_THREADS = 4;
+	private static final int DEFAULT_EVENTS_PER_SECOND = 500;
+	private static final String DEFAULT_WORD_LIST_PATH = "resources/word_list.txt";
+
+	// One spectator in this many stalls, with a small buffer
+	private static final int STALLED_EVERY = 100;
+	private static final int STALLED_BUFFER_SIZE = 16;
+	private static final long COMPLETION_TIMEOUT_SECONDS = 60;
+
+	/**
+	 * Spectator that counts what it is handed
+	 */
+	private static final class CountingSpectator implements Flow.Subscriber<SpectatorEvent> {
+
+		private final boolean stalled;
+		private final LongAdder received;
+		private final CountDownLatch finished;
+
+		/**
+		 * Constructor
+		 *
+		 * @param if it requests one event and never more
+		 * @param counter of events received by every spectator
+		 * @param latch counted down when the spectator completes
+		 */
+		private CountingSpectator(boolean stalled, LongAdder received, CountDownLatch finished) {
+			this.stalled = stalled;
+			this.received = received;
+			this.finished = finished;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscription.request(stalled ? 1 : Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(SpectatorEvent event) {
+			received.increment();
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			finished.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			finished.countDown();
+		}
+
+	}
+
+	/**
+	 * Not instantiable
+	 */
+	private SpectatorLoadTest() {
+	}
+
+	/**
+	 * Main method
+	 *
+	 * @param args subscribers, games, delivery threads, and events per second
+	 * @throws InterruptedException if interrupted while waiting for spectators
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int numSubscribers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SUBSCRIBERS;
+		int numGames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_THREADS;
+		int eventsPerSecond = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_EVENTS_PER_SECOND;
+		long eventInterval = TimeUnit.SECONDS.toNanos(1) / eventsPerSecond;
+		GameEngine engine = GameEngine.forWordList(DEFAULT_WORD_LIST_PATH);
+		WordDictionary dictionary = engine.getDictionary();
+		ExecutorService delivery = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "spectator-delivery");
+			thread.setDaemon(true);
+			return thread;
+		});
+		SpectatorFeed feed = new SpectatorFeed(delivery);
+		// Subscribe every spectator, the stalled ones alternating policies
+		LongAdder received = new LongAdder();
+		int numStalled = (numSubscribers + STALLED_EVERY - 1) / STALLED_EVERY;
+		CountDownLatch finished = new CountDownLatch(numSubscribers - numStalled);
+		for (int i = 0; i < numSubscribers; i++) {
+			if (i % STALLED_EVERY == 0) {
+				SpectatorFeed.OverflowPolicy policy = (i / STALLED_EVERY) % 2 == 0 ? SpectatorFeed.OverflowPolicy.DROP
+						: SpectatorFeed.OverflowPolicy.CONFLATE;
+				feed.subscribe(new CountingSpectator(true, received, finished), STALLED_BUFFER_SIZE, policy);
+			} else {
+				feed.subscribe(new CountingSpectator(false, received, finished));
+			}
+		}
+		// Type and submit random guesses, timing each call that publishes an event
+		LatencyHistogram publishLatency = new LatencyHistogram();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		GameSession session = engine.newSession();
+		long start = System.nanoTime();
+		long nextEvent = start;
+		for (int game = 0; game < numGames; game++) {
+			GameListener watcher = feed.watch(game, session);
+			while (!session.isOver()) {
+				String guess = dictionary.getWord(random.nextInt(dictionary.size()));
+				for (int i = 0; i < guess.length(); i++) {
+					nextEvent = waitUntil(nextEvent + eventInterval);
+					long typed = System.nanoTime();
+					session.typeLetter(guess.charAt(i));
+					publishLatency.record(System.nanoTime() - typed);
+				}
+				nextEvent = waitUntil(nextEvent + eventInterval);
+				long submitted = System.nanoTime();
+				session.submitGuess();
+				publishLatency.record(System.nanoTime() - submitted);
+			}
+			session.removeListener(watcher);
+			session.reset();
+		}
+		double playSeconds = (System.nanoTime() - start) / 1e9;
+		feed.close();
+		boolean completed = finished.await(COMPLETION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		double totalSeconds = (System.nanoTime() - start) / 1e9;
+		long published = feed.getPublished();
+		System.out.printf(Locale.ROOT, "Spectators: %d, %d stalled, on %d delivery threads%n", numSubscribers,
+				numStalled, threads);
+		System.out.printf(Locale.ROOT, "Games: %d, events published: %d in %.2f s (%.0f events/s)%n", numGames,
+				published, playSeconds, published / playSeconds);
+		System.out.printf(Locale.ROOT, "Game thread per event p50: %.1f us, p99: %.1f us%n",
+				publishLatency.percentile(50) / 1e3, publishLatency.percentile(99) / 1e3);
+		System.out.printf(Locale.ROOT, "Delivered: %d of %d (%.0f events/s), dropped: %d%n", received.sum(),
+				published * numSubscribers, received.sum() / totalSeconds, feed.getDropped());
+		System.out.printf(Locale.ROOT, "Spectators taking every event completed: %b%n", completed);
+		delivery.shutdown();
+	}
+
+	/**
+	 * Sleeps until a time
+	 *
+	 * @param deadline from System.nanoTime
+	 * @return the deadline
+	 */
+	private static long waitUntil(long deadline) {
+		for (long now = System.nanoTime(); now < deadline; now = System.nanoTime()) {
+			LockSupport.parkNanos(deadline - now);
+		}
+		return deadline;
+	}
+
+}
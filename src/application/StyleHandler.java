@@ -1,45 +1,58 @@
 package application;
 
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+
 /**
- * Class for hardcoding styles for text and buttons
- * 
+ * Class for the style classes and pseudo-classes of text and buttons. Their
+ * look comes from the stylesheet of the theme, so changing the state of a
+ * key only flips pseudo-classes and never parses any CSS.
+ *
  * @author Max Morhardt
  */
 public class StyleHandler {
-	
-	public final String PLAY_AGAIN_STYLE = "-fx-background-color: #121213; \n"
-			+ "-fx-text-fill: #ffffff; \n"
-			+ "-fx-border-color: #3a3a3c; \n"
-			+ "-fx-font: 17px Helvetica; \n"
-			+ "-fx-font-weight: bold; \n"
-			+ "-fx-border-width: 3px;";
-	
-	public final String WIN_LOSS_STYLE = "-fx-fill: #ffffff; \n"
-			+ "-fx-font: 40px Helvetica; \n"
-			+ "-fx-font-weight: bold;";
-	
-	public final String TITLE_STYLE = "-fx-fill: #ffffff; \n"
-			+ "-fx-font: 35px Helvetica; \n"
-			+ "-fx-font-weight: bold;";
-	
-	public final String STARTING_KEY_STYLE = "-fx-background-color: #818384; \n"
-			+ "-fx-text-fill: #ffffff; \n"
-			+ "-fx-font: 20px Helvetica; \n"
-			+ "-fx-font-weight: bold;";
-	
-	public final String HIT_KEY_STYLE = "-fx-background-color: #538d4e; \n"
-			+ "-fx-text-fill: #ffffff; \n"
-			+ "-fx-font: 20px Helvetica; \n"
-			+ "-fx-font-weight: bold;";
-	
-	public final String CONTAINS_KEY_STYLE = "-fx-background-color: #b59f3b; \n"
-			+ "-fx-text-fill: #ffffff; \n"
-			+ "-fx-font: 20px Helvetica; \n"
-			+ "-fx-font-weight: bold;";
-	
-	public final String MIS_KEY_STYLE = "-fx-background-color: #3a3a3c; \n"
-			+ "-fx-text-fill: #ffffff; \n"
-			+ "-fx-font: 20px Helvetica; \n"
-			+ "-fx-font-weight: bold;";
-	
-}
\ No newline at end of file
+
+	public final String PLAY_AGAIN_STYLE = "play-again";
+
+	public final String WIN_LOSS_STYLE = "win-loss";
+
+	public final String TITLE_STYLE = "title";
+
+	public final String REMAINING_STYLE = "remaining";
+
+	public final String STATS_STYLE = "stats";
+
+	public final String LINE_STYLE = "divider";
+
+	public final String KEY_STYLE = "key";
+
+	// States of a key, at most one set at a time
+	public final PseudoClass HIT_KEY_STATE = PseudoClass.getPseudoClass("hit");
+
+	public final PseudoClass CONTAINS_KEY_STATE = PseudoClass.getPseudoClass("contains");
+
+	public final PseudoClass MISS_KEY_STATE = PseudoClass.getPseudoClass("miss");
+
+	/**
+	 * Adds a style class to a node
+	 *
+	 * @param node
+	 * @param style class
+	 */
+	public void apply(Node node, String style) {
+		node.getStyleClass().add(style);
+	}
+
+	/**
+	 * Shows the state of a letter on its key
+	 *
+	 * @param key button
+	 * @param state from KeyboardState
+	 */
+	public void setKeyState(Node key, byte state) {
+		key.pseudoClassStateChanged(HIT_KEY_STATE, state == KeyboardState.CORRECT);
+		key.pseudoClassStateChanged(CONTAINS_KEY_STATE, state == KeyboardState.PRESENT);
+		key.pseudoClassStateChanged(MISS_KEY_STATE, state == KeyboardState.ABSENT);
+	}
+
+}
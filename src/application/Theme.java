@@ -0,0 +1,124 @@
+package application;
+
+import java.net.URL;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Color themes for the game. Text, buttons and keys are styled by the
+ * theme's stylesheet in the themes folder, loaded once when the scene is
+ * made. Board cells are filled with the theme's colors directly, since the
+ * canvas renderer draws them without CSS.
+ *
+ * @author Max Morhardt
+ */
+public enum Theme {
+
+	DARK("dark.css", Color.rgb(18, 18, 19), Color.rgb(58, 58, 60), Color.WHITE, Color.WHITE,
+			Color.rgb(83, 141, 78), Color.rgb(181, 159, 59), Color.rgb(58, 58, 60)),
+	LIGHT("light.css", Color.rgb(255, 255, 255), Color.rgb(211, 214, 218), Color.rgb(26, 26, 27), Color.WHITE,
+			Color.rgb(106, 170, 100), Color.rgb(201, 180, 88), Color.rgb(120, 124, 126)),
+	HIGH_CONTRAST("high-contrast.css", Color.rgb(0, 0, 0), Color.rgb(255, 255, 255), Color.WHITE, Color.WHITE,
+			Color.rgb(245, 121, 58), Color.rgb(133, 192, 249), Color.rgb(80, 80, 80));
+
+	// Folder of the stylesheets, next to this class
+	private static final String THEMES_FOLDER = "themes/";
+
+	private final String stylesheet;
+	private final Color emptyColor;
+	private final Color borderColor;
+	private final Color textColor;
+	private final Color resultTextColor;
+	private final Color hitColor;
+	private final Color containsColor;
+	private final Color missColor;
+
+	/**
+	 * Constructor
+	 *
+	 * @param file name of the stylesheet
+	 * @param fill of a cell with no result
+	 * @param border of a cell
+	 * @param letters in a cell with no result
+	 * @param letters in a cell with a result
+	 * @param fill of a hit
+	 * @param fill of a letter in the word
+	 * @param fill of a miss
+	 */
+	Theme(String stylesheet, Color emptyColor, Color borderColor, Color textColor, Color resultTextColor,
+			Color hitColor, Color containsColor, Color missColor) {
+		this.stylesheet = stylesheet;
+		this.emptyColor = emptyColor;
+		this.borderColor = borderColor;
+		this.textColor = textColor;
+		this.resultTextColor = resultTextColor;
+		this.hitColor = hitColor;
+		this.containsColor = containsColor;
+		this.missColor = missColor;
+	}
+
+	/**
+	 * Finds a theme by the name used on the command line, such as
+	 * high-contrast
+	 *
+	 * @param name of the theme, may be null
+	 * @return theme, or DARK if there is none by that name
+	 */
+	public static Theme forName(String name) {
+		for (Theme theme : values()) {
+			if (theme.name().replace('_', '-').equalsIgnoreCase(name)) {
+				return theme;
+			}
+		}
+		return DARK;
+	}
+
+	/**
+	 * Gets the stylesheet to add to the scene
+	 *
+	 * @return URL of the stylesheet
+	 */
+	public String getStylesheet() {
+		URL url = Theme.class.getResource(THEMES_FOLDER + stylesheet);
+		return url == null ? null : url.toExternalForm();
+	}
+
+	/**
+	 * Gets the fill of a cell
+	 *
+	 * @param result of the cell, HIT, CONTAINS or MISS, or BoardView.EMPTY
+	 * @return color
+	 */
+	public Color getFill(int result) {
+		switch (result) {
+		case Feedback.HIT:
+			return hitColor;
+		case Feedback.CONTAINS:
+			return containsColor;
+		case Feedback.MISS:
+			return missColor;
+		default:
+			return emptyColor;
+		}
+	}
+
+	/**
+	 * Gets the color of the letter in a cell
+	 *
+	 * @param result of the cell, HIT, CONTAINS or MISS, or BoardView.EMPTY
+	 * @return color
+	 */
+	public Color getTextColor(int result) {
+		return result == BoardView.EMPTY ? textColor : resultTextColor;
+	}
+
+	/**
+	 * Gets the border of every cell
+	 *
+	 * @return color
+	 */
+	public Color getBorderColor() {
+		return borderColor;
+	}
+
+}
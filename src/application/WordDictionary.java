@@ -0,0 +1,518 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable dictionary of words of one length, from 4 to 12 letters, stored
+ * as packed longs. Each letter takes 5 bits, with the first letter in the
+ * lowest bits, so a whole word fits in 60 bits and can be compared without
+ * any allocation. Word lists are read from a plain text list of words, or
+ * from a compiled binary list beside it when that was compiled from the
+ * same text.
+ *
+ * @author Max Morhardt
+ */
+public final class WordDictionary {
+
+	// Word lengths
+	public static final int MIN_WORD_LENGTH = 4;
+	public static final int MAX_WORD_LENGTH = 12;
+	public static final int DEFAULT_WORD_LENGTH = 5;
+
+	// Packing constants
+	public static final int BITS_PER_LETTER = 5;
+	public static final int LETTER_MASK = (1 << BITS_PER_LETTER) - 1;
+	public static final long INVALID_WORD = -1L;
+
+	// Hash table constants
+	private static final int EMPTY_SLOT = -1;
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	// Compiled list layout: magic, version, word length, word count, checksum, checksum of the text list, packed words
+	private static final int BINARY_MAGIC = 0x57444943;
+	private static final int BINARY_VERSION = 3;
+	private static final int BINARY_HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8;
+	private static final int SOURCE_CHECKSUM_OFFSET = 4 + 4 + 4 + 4 + 8;
+	public static final String BINARY_SUFFIX = ".bin";
+
+	// Where a word list was read from, for load events
+	private static final String SOURCE_CLASSPATH_BINARY = "classpath binary";
+	private static final String SOURCE_CLASSPATH_TEXT = "classpath text";
+	private static final String SOURCE_FILE_BINARY = "file binary";
+	private static final String SOURCE_FILE = "file";
+
+	// Error text
+	private static final String FILE_SCAN_ERROR_TEXT = "The file was not found";
+	private static final String CORRUPT_LIST_TEXT = "The compiled word list is corrupt";
+	private static final String WORD_LENGTH_ERROR_TEXT = "Words must have 4 to 12 letters, not ";
+
+	// Words in the order they were read
+	private final long[] words;
+	private final int wordLength;
+	// Open addressed table of indexes into words
+	private final int[] table;
+	private final int tableMask;
+
+	/**
+	 * Constructor
+	 *
+	 * @param packed words, duplicates and invalid words are dropped
+	 * @param number of letters in every word
+	 */
+	public WordDictionary(long[] packedWords, int wordLength) {
+		if (wordLength < MIN_WORD_LENGTH || wordLength > MAX_WORD_LENGTH) {
+			throw new IllegalArgumentException(WORD_LENGTH_ERROR_TEXT + wordLength);
+		}
+		this.wordLength = wordLength;
+		int capacity = Integer.highestOneBit(Math.max(packedWords.length, 1) * 2) * 2;
+		long[] unique = new long[packedWords.length];
+		int size = 0;
+		table = new int[capacity];
+		tableMask = capacity - 1;
+		Arrays.fill(table, EMPTY_SLOT);
+		for (long word : packedWords) {
+			if (word == INVALID_WORD) continue;
+			int slot = hash(word) & tableMask;
+			while (table[slot] != EMPTY_SLOT && unique[table[slot]] != word) {
+				slot = (slot + 1) & tableMask;
+			}
+			if (table[slot] == EMPTY_SLOT) {
+				table[slot] = size;
+				unique[size++] = word;
+			}
+		}
+		words = size == unique.length ? unique : Arrays.copyOf(unique, size);
+	}
+
+	/**
+	 * Loads a word list. A file at the path is read, or the compiled list
+	 * beside it if that was compiled from the same text. Only when there is
+	 * no such file is the list looked up on the classpath by name, where a
+	 * compiled list is likewise only used if it matches the text list.
+	 *
+	 * @param file name of a text or compiled word list
+	 * @return dictionary of the words in the list
+	 */
+	public static WordDictionary load(String fileName) {
+		GameEvents.DictionaryLoad event = new GameEvents.DictionaryLoad();
+		event.begin();
+		Path path = Paths.get(fileName);
+		String source;
+		byte[] bytes;
+		if (Files.isRegularFile(path)) {
+			source = SOURCE_FILE;
+			bytes = readFile(path);
+			Path compiledPath = Paths.get(compiledPathFor(fileName));
+			if (!isBinary(bytes) && !compiledPath.equals(path) && Files.isRegularFile(compiledPath)) {
+				byte[] compiled = readFile(compiledPath);
+				if (isCompiledFrom(compiled, bytes)) {
+					source = SOURCE_FILE_BINARY;
+					bytes = compiled;
+				}
+			}
+		} else {
+			String name = path.getFileName().toString();
+			byte[] text = readResource("/" + name);
+			byte[] compiled = readResource("/" + Paths.get(compiledPathFor(name)).getFileName());
+			if (compiled != null && (text == null || isCompiledFrom(compiled, text))) {
+				source = SOURCE_CLASSPATH_BINARY;
+				bytes = compiled;
+			} else if (text != null) {
+				source = SOURCE_CLASSPATH_TEXT;
+				bytes = text;
+			} else {
+				source = SOURCE_FILE;
+				System.out.println(FILE_SCAN_ERROR_TEXT + ": " + fileName);
+				bytes = new byte[0];
+			}
+		}
+		WordDictionary dictionary = parse(bytes);
+		event.end();
+		if (event.shouldCommit()) {
+			event.path = fileName;
+			event.source = source;
+			event.words = dictionary.size();
+			event.commit();
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Checks if a word list can be loaded, as a file at the path or by name
+	 * on the classpath, without reading it
+	 *
+	 * @param file name of a text or compiled word list
+	 * @return true if load would find the list
+	 */
+	public static boolean exists(String fileName) {
+		Path path = Paths.get(fileName);
+		if (Files.isRegularFile(path)) return true;
+		String name = path.getFileName().toString();
+		return WordDictionary.class.getResource("/" + name) != null
+				|| WordDictionary.class.getResource("/" + Paths.get(compiledPathFor(name)).getFileName()) != null;
+	}
+
+	/**
+	 * Gets the path of the compiled list for a text list
+	 *
+	 * @param path of a text list
+	 * @return path of the compiled list
+	 */
+	public static String compiledPathFor(String textPath) {
+		return siblingPath(textPath, BINARY_SUFFIX);
+	}
+
+	/**
+	 * Gets the path of a file kept beside a word list, the same path with
+	 * the extension replaced. Dots in folder names are not extensions.
+	 *
+	 * @param path of a word list
+	 * @param suffix to put in place of the extension, such as ".bin"
+	 * @return path of the file beside it
+	 */
+	public static String siblingPath(String wordListPath, String suffix) {
+		int extension = wordListPath.lastIndexOf('.');
+		if (extension > wordListPath.lastIndexOf('/') && extension > wordListPath.lastIndexOf('\\')) {
+			wordListPath = wordListPath.substring(0, extension);
+		}
+		return wordListPath + suffix;
+	}
+
+	/**
+	 * Computes the checksum a compiled list records of the text it was
+	 * compiled from
+	 *
+	 * @param bytes of the text list
+	 * @return CRC32 of the bytes
+	 */
+	public static long sourceChecksum(byte[] text) {
+		CRC32 crc = new CRC32();
+		crc.update(text);
+		return crc.getValue();
+	}
+
+	/**
+	 * Checks if bytes start like a compiled list
+	 *
+	 * @param bytes of a list
+	 * @return if the list is compiled
+	 */
+	private static boolean isBinary(byte[] bytes) {
+		return bytes.length >= BINARY_HEADER_SIZE && ByteBuffer.wrap(bytes).getInt() == BINARY_MAGIC;
+	}
+
+	/**
+	 * Checks a compiled list is current and was compiled from a text list
+	 *
+	 * @param bytes of the compiled list
+	 * @param bytes of the text list
+	 * @return if the compiled list can stand in for the text
+	 */
+	private static boolean isCompiledFrom(byte[] compiled, byte[] text) {
+		return isBinary(compiled) && ByteBuffer.wrap(compiled).getInt(4) == BINARY_VERSION
+				&& ByteBuffer.wrap(compiled).getLong(SOURCE_CHECKSUM_OFFSET) == sourceChecksum(text);
+	}
+
+	/**
+	 * Reads a whole file
+	 *
+	 * @param path of the file
+	 * @return bytes, empty if it could not be read
+	 */
+	private static byte[] readFile(Path path) {
+		try {
+			return Files.readAllBytes(path);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return new byte[0];
+		}
+	}
+
+	/**
+	 * Reads a compiled or text word list that is already in memory
+	 *
+	 * @param bytes of the list
+	 * @return dictionary of the words in the list
+	 */
+	public static WordDictionary parse(byte[] bytes) {
+		if (isBinary(bytes)) {
+			WordDictionary dictionary = parseBinary(bytes);
+			if (dictionary != null) {
+				return dictionary;
+			}
+			System.out.println(CORRUPT_LIST_TEXT);
+			return new WordDictionary(new long[0], DEFAULT_WORD_LENGTH);
+		}
+		return parseText(bytes);
+	}
+
+	/**
+	 * Writes the dictionary as a compiled word list
+	 *
+	 * @param output stream, left open
+	 * @param checksum of the text list it was compiled from, from sourceChecksum
+	 * @throws IOException if the stream could not be written
+	 */
+	public void writeBinary(OutputStream out, long sourceChecksum) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_SIZE + words.length * Long.BYTES);
+		buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(wordLength).putInt(words.length)
+				.putLong(checksum()).putLong(sourceChecksum);
+		buffer.asLongBuffer().put(words);
+		out.write(buffer.array());
+	}
+
+	/**
+	 * Reads a compiled word list in one bulk copy
+	 *
+	 * @param bytes of the list
+	 * @return dictionary or null if the header or checksum is wrong
+	 */
+	private static WordDictionary parseBinary(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		buffer.getInt();
+		int version = buffer.getInt();
+		int length = buffer.getInt();
+		int count = buffer.getInt();
+		long checksum = buffer.getLong();
+		buffer.getLong();
+		if (version != BINARY_VERSION || length < MIN_WORD_LENGTH || length > MAX_WORD_LENGTH || count < 0
+				|| buffer.remaining() != (long) count * Long.BYTES) {
+			return null;
+		}
+		long[] packed = new long[count];
+		buffer.asLongBuffer().get(packed);
+		WordDictionary dictionary = new WordDictionary(packed, length);
+		return dictionary.checksum() == checksum ? dictionary : null;
+	}
+
+	/**
+	 * Reads whitespace separated words. The first word from 4 to 12 letters
+	 * long sets the length, and words of any other length are skipped.
+	 *
+	 * @param bytes of the list
+	 * @return dictionary of the words in the list
+	 */
+	private static WordDictionary parseText(byte[] bytes) {
+		int length = 0;
+		long[] packed = new long[16];
+		int count = 0;
+		int i = 0;
+		while (i < bytes.length) {
+			// Skip whitespace, then find the end of the word
+			while (i < bytes.length && bytes[i] <= ' ') i++;
+			int start = i;
+			while (i < bytes.length && bytes[i] > ' ') i++;
+			int wordLength = i - start;
+			if (length == 0 && wordLength >= MIN_WORD_LENGTH && wordLength <= MAX_WORD_LENGTH) {
+				length = wordLength;
+				packed = new long[Math.max(bytes.length / (length + 1), 16)];
+			}
+			if (wordLength != length || length == 0) continue;
+			long word = 0;
+			for (int j = 0; j < length && word != INVALID_WORD; j++) {
+				int letter = toLetterIndex((char) bytes[start + j]);
+				word = letter < 0 ? INVALID_WORD : word | (long) letter << (j * BITS_PER_LETTER);
+			}
+			if (count == packed.length) packed = Arrays.copyOf(packed, count * 2);
+			packed[count++] = word;
+		}
+		return new WordDictionary(Arrays.copyOf(packed, count), length == 0 ? DEFAULT_WORD_LENGTH : length);
+	}
+
+	/**
+	 * Reads a whole resource from the classpath
+	 *
+	 * @param name of the resource
+	 * @return bytes or null if there is no such resource
+	 */
+	private static byte[] readResource(String name) {
+		try (InputStream in = WordDictionary.class.getResourceAsStream(name)) {
+			return in == null ? null : in.readAllBytes();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Packs a word into a long, ignoring case. A packed word does not hold
+	 * its length, so words are only compared against words of the same length.
+	 *
+	 * @param word
+	 * @return packed word or INVALID_WORD if it is not 1 to 12 letters
+	 */
+	public static long pack(CharSequence word) {
+		int length = word.length();
+		if (length == 0 || length > MAX_WORD_LENGTH) return INVALID_WORD;
+		long packed = 0;
+		for (int i = 0; i < length; i++) {
+			int letter = toLetterIndex(word.charAt(i));
+			if (letter < 0) return INVALID_WORD;
+			packed |= (long) letter << (i * BITS_PER_LETTER);
+		}
+		return packed;
+	}
+
+	/**
+	 * Packs an array of characters into a long, ignoring case
+	 *
+	 * @param word characters
+	 * @return packed word or INVALID_WORD if it is not 1 to 12 letters
+	 */
+	public static long pack(char[] word) {
+		if (word.length == 0 || word.length > MAX_WORD_LENGTH) return INVALID_WORD;
+		long packed = 0;
+		for (int i = 0; i < word.length; i++) {
+			int letter = toLetterIndex(word[i]);
+			if (letter < 0) return INVALID_WORD;
+			packed |= (long) letter << (i * BITS_PER_LETTER);
+		}
+		return packed;
+	}
+
+	/**
+	 * Turns a packed word back into a lowercase string
+	 *
+	 * @param packed word
+	 * @param number of letters in the word
+	 * @return word
+	 */
+	public static String unpack(long packed, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) ('a' + letterAt(packed, i));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Gets a letter out of a packed word
+	 *
+	 * @param packed word
+	 * @param position of the letter
+	 * @return letter index from 0 (a) to 25 (z)
+	 */
+	public static int letterAt(long packed, int position) {
+		return (int) (packed >>> (position * BITS_PER_LETTER)) & LETTER_MASK;
+	}
+
+	/**
+	 * Converts a character to its letter index, ignoring case
+	 *
+	 * @param c character
+	 * @return letter index from 0 (a) to 25 (z) or -1 if not a letter
+	 */
+	public static int toLetterIndex(char c) {
+		int letter = (c | 0x20) - 'a';
+		return letter >= 0 && letter < 26 ? letter : -1;
+	}
+
+	/**
+	 * Checks if a packed word is in the dictionary
+	 *
+	 * @param packed word
+	 * @return if the word is in the dictionary
+	 */
+	public boolean contains(long packed) {
+		return indexOf(packed) >= 0;
+	}
+
+	/**
+	 * Checks if a word is in the dictionary, ignoring case
+	 *
+	 * @param word
+	 * @return if the word is in the dictionary
+	 */
+	public boolean contains(CharSequence word) {
+		return word.length() == wordLength && indexOf(pack(word)) >= 0;
+	}
+
+	/**
+	 * Finds the index of a packed word
+	 *
+	 * @param packed word
+	 * @return index of the word or -1 if it is not in the dictionary
+	 */
+	public int indexOf(long packed) {
+		if (packed == INVALID_WORD) return -1;
+		int slot = hash(packed) & tableMask;
+		int index;
+		while ((index = table[slot]) != EMPTY_SLOT) {
+			if (words[index] == packed) return index;
+			slot = (slot + 1) & tableMask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets a packed word by index
+	 *
+	 * @param index
+	 * @return packed word
+	 */
+	public long get(int index) {
+		return words[index];
+	}
+
+	/**
+	 * Gets a word by index as a string
+	 *
+	 * @param index
+	 * @return word
+	 */
+	public String getWord(int index) {
+		return unpack(words[index], wordLength);
+	}
+
+	/**
+	 * Gets the number of words in the dictionary
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return words.length;
+	}
+
+	/**
+	 * Gets the number of letters in every word
+	 *
+	 * @return word length
+	 */
+	public int getWordLength() {
+		return wordLength;
+	}
+
+	/**
+	 * Computes a checksum of the word length and the words in order
+	 *
+	 * @return CRC32 of the length and packed words
+	 */
+	public long checksum() {
+		ByteBuffer bytes = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		bytes.asLongBuffer().put(words);
+		CRC32 crc = new CRC32();
+		crc.update(wordLength);
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	/**
+	 * Spreads the bits of a packed word across the table
+	 *
+	 * @param packed word
+	 * @return hash
+	 */
+	private static int hash(long packed) {
+		long h = packed * HASH_MULTIPLIER;
+		return (int) (h >>> 32);
+	}
+
+}
@@ -0,0 +1,60 @@
+package application;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build step that compiles a text word list into the packed binary list
+ * loaded in its place at startup. The compiled list records a checksum of
+ * the text, so after the text list changes it is ignored until it is
+ * compiled again.
+ *
+ * Usage: WordListCompiler [text list path] [compiled list path]
+ *
+ * @author Max Morhardt
+ */
+public final class WordListCompiler {
+
+	// Defaults for the command line
+	private static final String DEFAULT_WORD_LIST_PATH = "resources/word_list.txt";
+
+	/**
+	 * Not instantiable
+	 */
+	private WordListCompiler() {
+	}
+
+	/**
+	 * Compiles a text word list
+	 *
+	 * @param path of the text list
+	 * @param path of the compiled list
+	 * @return dictionary that was written
+	 * @throws IOException if either file could not be used
+	 */
+	public static WordDictionary compile(Path textPath, Path binaryPath) throws IOException {
+		byte[] text = Files.readAllBytes(textPath);
+		WordDictionary dictionary = WordDictionary.parse(text);
+		try (OutputStream out = Files.newOutputStream(binaryPath)) {
+			dictionary.writeBinary(out, WordDictionary.sourceChecksum(text));
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Main method
+	 *
+	 * @param args text list path and compiled list path
+	 * @throws IOException if either file could not be used
+	 */
+	public static void main(String[] args) throws IOException {
+		String textPath = args.length > 0 ? args[0] : DEFAULT_WORD_LIST_PATH;
+		String binaryPath = args.length > 1 ? args[1] : WordDictionary.compiledPathFor(textPath);
+		WordDictionary dictionary = compile(Paths.get(textPath), Paths.get(binaryPath));
+		System.out.printf("Compiled %d words to %s (checksum %08x)%n", dictionary.size(), binaryPath, dictionary.checksum());
+	}
+
+}
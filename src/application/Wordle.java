@@ -1,14 +1,13 @@
 package application;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -18,42 +17,51 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
 import javafx.scene.shape.Line;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 /**
- * Class for the display of the Wordle game
+ * Class for the display of the Wordle game, redrawn only when the game changes
  * 
  * @author Max Morhardt
  */
-public class Wordle extends Application {
+public class Wordle extends Application implements GameListener {
 	
-	// Path to the word list file
-	private final String WORD_LIST_PATH = "resources/word_list.txt";
+	// Command line arguments: --length=7 --guesses=8 to change the size, --boards=4 to play several
+	// words at once, --renderer=canvas or nodes to choose how boards are drawn, --theme=dark, light or
+	// high-contrast to change the colors, --hard for hard mode, --absurdle for a secret word that is
+	// never fixed, --replay to show the last recorded game
+	private final String LENGTH_PARAMETER = "length";
+	private final String GUESSES_PARAMETER = "guesses";
+	private final String BOARDS_PARAMETER = "boards";
+	private final String RENDERER_PARAMETER = "renderer";
+	private final String CANVAS_RENDERER = "canvas";
+	private final String NODES_RENDERER = "nodes";
+	private final String THEME_PARAMETER = "theme";
+	private final String HARD_ARGUMENT = "--hard";
+	private final String ABSURDLE_ARGUMENT = "--absurdle";
+	private final String REPLAY_ARGUMENT = "--replay";
+	private final String NO_WORD_LIST_TEXT = "No word list for that length, playing with five letters";
 
 	// Game scene constants
-	private final int FRAMES_PER_SECOND = 30;
-	private final int MILLISECOND_DELAY = 1000 / FRAMES_PER_SECOND;
 	private final int SCENE_WIDTH = 700;
 	private final int SCENE_HEIGHT = 775;
 	
-	// Game constants
-	private final int WORD_LENGTH = 5;
-	private final int NUM_GUESSES = 6;
-	
 	// Margin constants
 	private final int GRID_BOTTOM_MARGIN = 30;
 	private final int GRID_SPACING = 10;
-	private final int LINE_BOTTOM_MARGIN = 30;
+	private final int BOARD_SPACING = 30;
+	private final int MAX_GRID_WIDTH = 640;
+	private final int MAX_GRID_HEIGHT = 500;
+	private final int LINE_BOTTOM_MARGIN = 10;
+	private final int REMAINING_BOTTOM_MARGIN = 10;
 	private final int TITLE_TOP_MARGIN = 20;
 	private final int TITLE_BOTTOM_MARGIN = 10;
 	private final int WIN_LOSS_TOP_MARGIN = 30;
 	private final int PLAY_AGAIN_TOP_MARGIN = 30;
+	private final int STATS_TOP_MARGIN = 10;
 	private final int KEYBOARD_MARGIN = 2;
 	
 	// Line stroke width constant
@@ -69,159 +77,250 @@ public class Wordle extends Application {
 	private final String TITLE_NAME = "WORDLE";
 	private final String PLAY_AGAIN_TEXT = "Play again?";
 	private final String YOU_WON_TEXT = "You Won!";
+	private final String WORDS_REMAINING_TEXT = " words remaining";
+	private final String WORD_REMAINING_TEXT = " word remaining";
+	private final String BOARDS_SOLVED_TEXT = " boards solved";
+	private final String OF_TEXT = " of ";
+	private final String WORD_WAS_TEXT = "The word was: ";
+	private final String WORDS_WERE_TEXT = "The words were: ";
 	private final String ENTER_TEXT = "ENTER";
 	private final String DELETE_TEXT = "<=";
-	private final String FILE_SCAN_ERROR_TEXT = "The file was not found";
-	private final char HIT_CHAR = 'G';
-	private final char CONTAINS_CHAR = 'Y';
-	private final char MISS_CHAR = 'X';
-	
-	// Color constants
-	private final Color SCENE_COLOR = Color.rgb(18,18,19);
-	private final Color LINE_COLOR = Color.rgb(54,54,56);
-	private final Color HIT_COLOR = Color.rgb(83,141,78);
-	private final Color CONTAINS_COLOR = Color.rgb(181,159,59);
-	private final Color MISS_COLOR = Color.rgb(58,58,60);
+	private final String HINT_TEXT = "HINT";
+	private final String PLAYED_TEXT = "Played ";
+	private final String WIN_PERCENT_TEXT = "   Win % ";
+	private final String CURRENT_STREAK_TEXT = "   Current Streak ";
+	private final String MAX_STREAK_TEXT = "   Max Streak ";
+	private final String DISTRIBUTION_TEXT = "Guesses";
+	private final String GRID_TARGET = "grid";
+	private final String KEYBOARD_TARGET = "keyboard";
 	
 	// Index constants
+	private final int SECOND_ROW_INDEX = 1;
+	private final int SECOND_ROW_LAST_KEY_INDEX = 8;
 	private final int THIRD_ROW_INDEX = 2;
 	private final int THIRD_ROW_LAST_KEY_INDEX = 6;
 	
 	// Game variables
-	private List<String> words;
-	private String secretWord;
-	private int guessCount;
-	private boolean won;
-	private boolean lost;
+	private GameEngine engine;
+	private GameSession session;
+	private CompletableFuture<EntropySolver> solver;
+	// If a hint is waiting for the solver to be built
+	private boolean hintPending;
+	private GameJournal journal;
+	// If every new game chooses its secret word against the guesses
+	private boolean absurdle;
+	private PlayerStats stats;
 	
 	// View variables
 	private VBox root;
-	private WordleRectangle[][] gridWordleRectangles;
-	private List<Character> guessCharacterList;
+	private BoardView[] boardViews;
+	private boolean canvasBoards;
+	private int boardColumns;
+	private double gridScale;
+	private Text remainingText;
 	private StyleHandler styleHandler;
+	private Theme theme;
 	private ArrayList<ArrayList<Button>> keyboardButtons;
+	private Button[] letterButtons;
+	private KeyboardState keyboardState;
 	
 	/**
 	 * Constructor
 	 */
 	public Wordle() {
-		// Words from the word list
-		words = scanList(WORD_LIST_PATH);
-		// Secret word to guess
-		secretWord = getRandomWord();
-		// List of all the characters that are in the current guesses
-		guessCharacterList = new ArrayList<>();
-		// Number of guesses attempted
-		guessCount = 0;
-		// Variables for ending the game
-		won = false;
-		lost = false;
 		// Root for the scene
 		root = new VBox();
-		// Wordle rectangles within the grid pane
-		gridWordleRectangles = new WordleRectangle[WORD_LENGTH][NUM_GUESSES];
 		// Handles the styles of most buttons and text
 		styleHandler = new StyleHandler();
 		// Contains all buttons on the keyboard
 		keyboardButtons = new ArrayList<ArrayList<Button>>();
+		// Letter keys by letter index, for updating keys without searching
+		letterButtons = new Button[KeyboardState.NUM_LETTERS];
+		// What is known about each letter, only ever upgraded within a game
+		keyboardState = new KeyboardState();
 	}
 	
 	/**
-	 * Reads a file into a list
-	 * 
-	 * @param file name
-	 * @return list of strings
+	 * Sets up the game for the word length and number of guesses asked for
 	 */
-	private List<String> scanList(String fileName) {
-		List<String> list = new ArrayList<>();
-		try {
-			Scanner in = new Scanner(new File(fileName));
-			while (in.hasNext()) {
-				list.add(in.next());
+	@Override
+	public void init() {
+		Map<String, String> named = getParameters().getNamed();
+		int wordLength = parseParameter(named.get(LENGTH_PARAMETER), WordDictionary.DEFAULT_WORD_LENGTH,
+				WordDictionary.MIN_WORD_LENGTH, WordDictionary.MAX_WORD_LENGTH);
+		int numBoards = parseParameter(named.get(BOARDS_PARAMETER), 1, 1, GameEngine.MAX_NUM_BOARDS);
+		int numGuesses = parseParameter(named.get(GUESSES_PARAMETER),
+				Math.min(GameEngine.defaultNumGuesses(numBoards), GameEngine.MAX_NUM_GUESSES), 1,
+				GameEngine.MAX_NUM_GUESSES);
+		// Only lengths with a word list can be played
+		if (!GameEngine.hasWordList(wordLength)) {
+			System.out.println(NO_WORD_LIST_TEXT);
+			wordLength = WordDictionary.DEFAULT_WORD_LENGTH;
+		}
+		// Rules and words shared by every game, the word list is only read once
+		engine = GameEngine.forWordLength(wordLength, numGuesses);
+		// Game being played, holds the secret words, guesses, and typed letters
+		session = engine.newMultiBoardSession(numBoards);
+		// Redraw whenever the game changes
+		session.addListener(this);
+		// Hard mode makes every guess use the hints so far, only on a single board
+		if (numBoards == 1 && getParameters().getRaw().contains(HARD_ARGUMENT)) {
+			session.setHardMode(true);
+		}
+		// Absurdle picks the secret word against every guess, only on a single board
+		absurdle = numBoards == 1 && getParameters().getRaw().contains(ABSURDLE_ARGUMENT);
+		session.setAdversarial(absurdle);
+		// Colors of the boards and the stylesheet for everything else
+		theme = Theme.forName(named.get(THEME_PARAMETER));
+		// Many boards are drawn on canvases unless nodes are asked for, so the scene stays small
+		String renderer = named.getOrDefault(RENDERER_PARAMETER, numBoards > 1 ? CANVAS_RENDERER : NODES_RENDERER);
+		canvasBoards = CANVAS_RENDERER.equals(renderer);
+		// One grid of rectangles per board, laid out and shrunk to fit long words, many guesses, or many boards
+		boardViews = new BoardView[numBoards];
+		boardColumns = 1;
+		gridScale = 0;
+		for (int columns = 1; columns <= numBoards; columns++) {
+			int rows = (numBoards + columns - 1) / columns;
+			double scale = Math.min(1, Math.min(MAX_GRID_WIDTH / boardsExtent(engine.getWordLength(), columns),
+					MAX_GRID_HEIGHT / boardsExtent(engine.getNumGuesses(), rows)));
+			if (scale > gridScale) {
+				gridScale = scale;
+				boardColumns = columns;
 			}
-			in.close();
-		} catch (FileNotFoundException e) {
-			System.out.println(FILE_SCAN_ERROR_TEXT);
-			e.printStackTrace();
 		}
-		assert list != null;
-		return list;
 	}
 	
 	/**
-	 * Gets a random number within a range
-	 * 
-	 * @param min
-	 * @param max
-	 * @return int within a range
+	 * Main entry point
 	 */
-	private int getRandomNumber(int min, int max) {
-	    return (int) ((Math.random() * (max - min)) + min);
+	@Override
+	public void start(Stage primaryStage) {
+		// Make the game metrics readable through JMX
+		Metrics.registerMBean();
+		// Build the hint solver in the background so the first hint is instant
+		solver = CompletableFuture.supplyAsync(() -> new EntropySolver(engine));
+		// Create scene and display
+		Scene scene = setupMainScene();
+		// The journal and statistics only keep games on a single board
+		if (session.getBoardCount() == 1) {
+			if (getParameters().getRaw().contains(REPLAY_ARGUMENT)) {
+				// Replayed games are shown but not recorded again
+				replayLastGame();
+			} else {
+				openJournal();
+				openStats();
+			}
+		}
+		for (int board = 0; board < session.getBoardCount() && !session.isAdversarial(); board++) {
+			System.out.println(session.getSecretWord(board));
+		}
+		handleKeyboardInput(scene);
+		primaryStage.setTitle(STAGE_TITLE_TEXT);
+		primaryStage.setScene(scene);
+		primaryStage.show();
 	}
 	
 	/**
-	 * Gets a random word from the word list
-	 * 
-	 * @return random word
+	 * Writes the metrics to a file on exit if one was asked for
 	 */
-	private String getRandomWord() {
-		int index = getRandomNumber(0, words.size()-1);
-		return words.get(index);
+	@Override
+	public void stop() {
+		if (journal != null) {
+			journal.appendAbandoned(session);
+			journal.close();
+		}
+		if (stats != null) {
+			stats.close();
+		}
+		Metrics.get().dumpIfRequested();
 	}
 	
 	/**
-	 * Validates a guess from the user based on if its in the word list
-	 * 
-	 * @return if the guess is in the word list
+	 * Opens the journal and records every game from now on
 	 */
-	private boolean isInWordList(String guess) {
-		if (words.contains(guess.toLowerCase())) {
-			return true;
+	private void openJournal() {
+		try {
+			journal = GameJournal.open(Paths.get(GameJournal.DEFAULT_DIRECTORY));
+			session.addListener(journal);
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
-		return false;
 	}
 	
 	/**
-	 * Checks a guess and returns a string of the result
-	 * 
-	 * @param guess
-	 * @return string of corresponding hits, misses, and in the word values
-	 */
-	private String checkGuess(String guess) {
-		String result = "";
-		for (int i = 0; i < guess.length(); i++) {
-			if (guess.charAt(i) == secretWord.charAt(i)) {
-				// G (Green): Correct character and place
-				result += HIT_CHAR;
-			} else if (secretWord.contains(String.valueOf(guess.charAt(i)))) {
-				// Y (Yellow): Correct character wrong place
-				result += CONTAINS_CHAR;
-			} else {
-				// X (Gray): Character is not in the word
-				result += MISS_CHAR;
-			}
+	 * Opens the player statistics shown at the end of each game
+	 */
+	private void openStats() {
+		try {
+			stats = PlayerStats.open(Paths.get(PlayerStats.DEFAULT_PATH));
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
-		return result;
+	}
+	
+	/**
+	 * Plays back the last recorded game into the grid and keyboard
+	 */
+	private void replayLastGame() {
+		JournalRecord record;
+		try {
+			record = GameJournal.readLast(Paths.get(GameJournal.DEFAULT_DIRECTORY));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		if (record == null || record.getWordLength() != engine.getWordLength()) return;
+		int secretIndex = engine.getDictionary().indexOf(record.getSecret());
+		if (secretIndex < 0) return;
+		// A replayed game keeps its recorded secret word
+		session.setAdversarial(false);
+		session.reset(secretIndex);
+		// The recorded game may not have been played in hard mode
+		boolean hardMode = session.isHardMode();
+		session.setHardMode(false);
+		for (int i = 0; i < record.getGuessCount(); i++) {
+			session.submitGuess(record.getGuess(i));
+		}
+		session.setHardMode(hardMode);
 	}
 
 	/**
-	 * Main entry point
+	 * Redraws the row being typed
 	 */
 	@Override
-	public void start(Stage primaryStage) {
-		// Create scene and display
-		Scene scene = setupMainScene();
-		System.out.println(secretWord);
-		handleKeyboardInput(scene);
-		primaryStage.setTitle(STAGE_TITLE_TEXT);
-		primaryStage.setScene(scene);
-		primaryStage.show();
-		// Game loop
-		KeyFrame frame = new KeyFrame(Duration.millis(MILLISECOND_DELAY), e -> step(MILLISECOND_DELAY));
-		Timeline animation = new Timeline();
-		animation.setCycleCount(Timeline.INDEFINITE);
-		animation.getKeyFrames().add(frame);
-		animation.play();
+	public void inputChanged(GameSession session) {
+		updateLetters();
+	}
+	
+	/**
+	 * Colors the row and keyboard for an accepted guess
+	 */
+	@Override
+	public void guessSubmitted(GameSession session, int row, long guess, int result) {
+		updateRectangleColors(row);
+		updateKeyboardColors(row);
+		updateRemainingText(remainingText);
+	}
+	
+	/**
+	 * Shows the end of game text and play again button
+	 */
+	@Override
+	public void gameEnded(GameSession session) {
+		if (stats != null) {
+			stats.record(session.isWon(), session.getGuessCount());
+		}
+		handleEndGame();
+	}
+	
+	/**
+	 * Clears the grid and keyboard for a new game
+	 */
+	@Override
+	public void gameReset(GameSession session) {
+		resetGrid();
+		resetKeyboard();
+		updateRemainingText(remainingText);
 	}
 
 	/**
@@ -234,6 +333,8 @@ public class Wordle extends Application {
 		Text title = setupTitle();
 		// Line between the title and grid
 		Line line = setupLine();
+		// Count of the answers that are still possible
+		remainingText = setupRemainingText();
 		// Sets up the grid for text and color to be displayed
 		GridPane grid = setupGrid();
 		// Creates GUI keyboard
@@ -244,14 +345,62 @@ public class Wordle extends Application {
 		root.setAlignment(ROOT_POSITION);
 		VBox.setMargin(title, new Insets(TITLE_TOP_MARGIN, 0, TITLE_BOTTOM_MARGIN, 0));
 		VBox.setMargin(line, new Insets(0, 0, LINE_BOTTOM_MARGIN, 0));
-		VBox.setMargin(line, new Insets(0, 0, LINE_BOTTOM_MARGIN, 0));
+		VBox.setMargin(remainingText, new Insets(0, 0, REMAINING_BOTTOM_MARGIN, 0));
 		VBox.setMargin(grid, new Insets(0, 0, GRID_BOTTOM_MARGIN, 0));
-		root.getChildren().addAll(title, line, grid, keyboard);
-		// Creates scene
-		Scene scene = new Scene(root, SCENE_WIDTH, SCENE_HEIGHT, SCENE_COLOR);
+		root.getChildren().addAll(title, line, remainingText, grid, keyboard);
+		// Creates scene, taller when the grid is taller than six rows
+		int boardRows = (session.getBoardCount() + boardColumns - 1) / boardColumns;
+		double extraHeight = Math.max(0, boardsExtent(engine.getNumGuesses(), boardRows) * gridScale
+				- gridExtent(GameEngine.DEFAULT_NUM_GUESSES));
+		Scene scene = new Scene(root, SCENE_WIDTH, SCENE_HEIGHT + extraHeight, theme.getFill(BoardView.EMPTY));
+		// The theme's stylesheet is parsed once here, later changes only flip pseudo-classes
+		String stylesheet = theme.getStylesheet();
+		if (stylesheet != null) {
+			scene.getStylesheets().add(stylesheet);
+		}
 		return scene;
 	}
 	
+	/**
+	 * Gets the unscaled length of a line of rectangles with the spacing between them
+	 * 
+	 * @param number of rectangles
+	 * @return length in pixels
+	 */
+	private double gridExtent(int count) {
+		return count * WordleRectangle.RECTANGLE_SIZE + (count - 1) * GRID_SPACING;
+	}
+	
+	/**
+	 * Gets the unscaled length of a line of boards with the spacing between them
+	 * 
+	 * @param number of rectangles along the line in each board
+	 * @param number of boards
+	 * @return length in pixels
+	 */
+	private double boardsExtent(int count, int boards) {
+		return boards * gridExtent(count) + (boards - 1) * BOARD_SPACING;
+	}
+	
+	/**
+	 * Reads a whole number command line parameter
+	 * 
+	 * @param value given, may be null
+	 * @param default value
+	 * @param minimum value
+	 * @param maximum value
+	 * @return value, or the default if missing or out of range
+	 */
+	private int parseParameter(String value, int defaultValue, int min, int max) {
+		if (value == null) return defaultValue;
+		try {
+			int parsed = Integer.parseInt(value.trim());
+			return parsed >= min && parsed <= max ? parsed : defaultValue;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+	
 	/**
 	 * Creates the title in the GUI for the game
 	 * 
@@ -259,7 +408,7 @@ public class Wordle extends Application {
 	 */
 	private Text setupTitle() {
 		Text title = new Text(TITLE_NAME);
-		title.setStyle(styleHandler.TITLE_STYLE);
+		styleHandler.apply(title, styleHandler.TITLE_STYLE);
 		return title;
 	}
 	
@@ -272,31 +421,48 @@ public class Wordle extends Application {
 		Line line = new Line();
 		line.setStartX(0);
 		line.setEndX(SCENE_WIDTH);
-		line.setStroke(LINE_COLOR);
+		styleHandler.apply(line, styleHandler.LINE_STYLE);
 		line.setStrokeWidth(LINE_STROKE_WIDTH);
 		return line;
 	}
 	
 	/**
-	 * Creates a grid of rectangles for where characters will be placed
+	 * Creates the text counting the answers that are still possible
 	 * 
-	 * @return GridPane of rectangles
+	 * @return remaining text
+	 */
+	private Text setupRemainingText() {
+		Text text = new Text();
+		styleHandler.apply(text, styleHandler.REMAINING_STYLE);
+		updateRemainingText(text);
+		return text;
+	}
+	
+	/**
+	 * Creates a grid of boards, each a grid of rectangles for where characters will be placed
+	 * 
+	 * @return GridPane of boards
 	 */
 	private GridPane setupGrid() {
-		// Grid plane to hold the rectangle and text stack panes 
+		// Grid plane to hold the grid of each board
 		GridPane grid = new GridPane();
-		for (int i = 0; i < gridWordleRectangles.length; i++) {
-			for (int j = 0; j < gridWordleRectangles[i].length; j++) {
-				WordleRectangle wordleRect = new WordleRectangle(i, j);
-				StackPane rectWithText = wordleRect.getRectWithText();
-				gridWordleRectangles[i][j] = wordleRect;
-				grid.add(rectWithText, i, j);
-			}
+		// Canvas boards share one set of cell images
+		GlyphCache glyphs = canvasBoards
+				? new GlyphCache(Math.max(1, (int) Math.round(WordleRectangle.RECTANGLE_SIZE * gridScale)), theme)
+				: null;
+		for (int board = 0; board < boardViews.length; board++) {
+			BoardView boardView = canvasBoards
+					? new CanvasBoardView(engine.getWordLength(), engine.getNumGuesses(), glyphs,
+							GRID_SPACING * gridScale)
+					: new NodeBoardView(engine.getWordLength(), engine.getNumGuesses(),
+							WordleRectangle.RECTANGLE_SIZE * gridScale, GRID_SPACING * gridScale, theme);
+			boardViews[board] = boardView;
+			grid.add(boardView.getNode(), board % boardColumns, board / boardColumns);
 		}
-		// Aligns the grid in the center and adds space between the rectangles
+		// Aligns the grid in the center and adds space between the boards
 		grid.setAlignment(GRID_POSITION);
-		grid.setHgap(GRID_SPACING);
-		grid.setVgap(GRID_SPACING);
+		grid.setHgap(BOARD_SPACING * gridScale);
+		grid.setVgap(BOARD_SPACING * gridScale);
 		return grid;
 	}
 	
@@ -320,10 +486,8 @@ public class Wordle extends Application {
 			// Add the enter button as soon as the loop reaches the 3rd row
 			if (i == THIRD_ROW_INDEX) {
 				Button enter = new Button(ENTER_TEXT);
-				enter.setStyle(styleHandler.STARTING_KEY_STYLE);
-				enter.setOnAction(e -> {
-					if (guessCharacterList.size() == WORD_LENGTH) submitGuess();
-				});
+				styleHandler.apply(enter, styleHandler.KEY_STYLE);
+				enter.setOnAction(e -> session.submitGuess());
 				keyboardButtons.get(i).add(enter);
 				keyboardRow.getChildren().add(enter);
 				HBox.setMargin(enter, new Insets(KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN));
@@ -332,21 +496,26 @@ public class Wordle extends Application {
 			for (int j = 0; j < keysInOrder[i].length; j++) {
 				// Creates a key for the keyboard
 				Button key = new Button("" + keysInOrder[i][j]);
-				key.setStyle(styleHandler.STARTING_KEY_STYLE);
+				styleHandler.apply(key, styleHandler.KEY_STYLE);
 				keyboardButtons.get(i).add(key);
-				key.setOnAction(e -> {
-					if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add(Character.toLowerCase(key.getText().charAt(0)));
-				});
+				letterButtons[WordDictionary.toLetterIndex(keysInOrder[i][j])] = key;
+				key.setOnAction(e -> session.typeLetter(key.getText().charAt(0)));
 				keyboardRow.getChildren().add(key);
 				HBox.setMargin(key, new Insets(KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN));
+				// Adds the hint button to the end of the second row
+				if (i == SECOND_ROW_INDEX && j == SECOND_ROW_LAST_KEY_INDEX) {
+					Button hint = new Button(HINT_TEXT);
+					styleHandler.apply(hint, styleHandler.KEY_STYLE);
+					hint.setOnAction(e -> showHint());
+					keyboardButtons.get(i).add(hint);
+					keyboardRow.getChildren().add(hint);
+					HBox.setMargin(hint, new Insets(KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN));
+				}
 				// Adds the delete button to the end of the keyboard
 				if (i == THIRD_ROW_INDEX && j == THIRD_ROW_LAST_KEY_INDEX) {
 					Button delete = new Button(DELETE_TEXT);
-					delete.setStyle(styleHandler.STARTING_KEY_STYLE);
-					delete.setOnAction(e -> {
-						int finalIndex = guessCharacterList.size()-1;
-						if (guessCharacterList.size() > 0) guessCharacterList.remove(finalIndex);
-					});
+					styleHandler.apply(delete, styleHandler.KEY_STYLE);
+					delete.setOnAction(e -> session.deleteLetter());
 					keyboardButtons.get(i).add(delete);
 					keyboardRow.getChildren().add(delete);
 					HBox.setMargin(delete, new Insets(KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN, KEYBOARD_MARGIN));
@@ -363,98 +532,140 @@ public class Wordle extends Application {
 	 * Updates the letters on the GUI
 	 */
 	private void updateLetters() {
-		for (int i = 0; i < WORD_LENGTH; i++) {
-			WordleRectangle wordleRect = gridWordleRectangles[i][guessCount];
-			if (guessCharacterList.size() - 1 < i) {
-				wordleRect.setText("");
-			} else {
-				wordleRect.setText(("" + guessCharacterList.get(i)).toUpperCase());
+		// Submitted rows keep their letters once the game is over
+		if (session.isOver()) return;
+		int row = session.getGuessCount();
+		for (int i = 0; i < engine.getWordLength(); i++) {
+			String letter = session.getInputLength() - 1 < i ? "" : String.valueOf(session.getInputLetter(i));
+			// Solved boards take no more guesses
+			for (int board = 0; board < boardViews.length; board++) {
+				if (!session.isSolved(board)) {
+					boardViews[board].setText(i, row, letter);
+				}
 			}
 		}
 	}
 	
 	/**
-	 * Updates the colors of the rectangle
+	 * Checks if a guess was scored on a board, which is every board not
+	 * solved by an earlier guess
 	 * 
-	 * @param guess result
-	 */
-	private void updateRectangleColors(String guessResult) {
-		for (int i = 0; i < WORD_LENGTH; i++) {
-			WordleRectangle wordleRect = gridWordleRectangles[i][guessCount];
-			if (guessResult.charAt(i) == HIT_CHAR) {
-				wordleRect.setRectFill(HIT_COLOR);
-			} else if (guessResult.charAt(i) == CONTAINS_CHAR) {
-				wordleRect.setRectFill(CONTAINS_COLOR);
-			} else {
-				wordleRect.setRectFill(MISS_COLOR);
+	 * @param board
+	 * @param row of the guess
+	 * @return if the board has a result for the guess
+	 */
+	private boolean isScored(int board, int row) {
+		int solvedRow = session.getSolvedRow(board);
+		return solvedRow == GameSession.NOT_SOLVED || solvedRow >= row;
+	}
+	
+	/**
+	 * Updates the colors of the rectangles on every board the guess was scored on
+	 * 
+	 * @param row of the guess
+	 */
+	private void updateRectangleColors(int row) {
+		GameEvents.Repaint event = new GameEvents.Repaint();
+		event.begin();
+		long start = System.nanoTime();
+		for (int board = 0; board < boardViews.length; board++) {
+			if (!isScored(board, row)) continue;
+			int guessResult = session.getResult(row, board);
+			for (int i = 0; i < engine.getWordLength(); i++) {
+				boardViews[board].setResult(i, row, Feedback.at(guessResult, i));
 			}
 		}
+		endRepaint(event, start, GRID_TARGET, row);
 	}
 	
 	/**
-	 * Updates the keyboard colors after a guess
+	 * Updates the count of answers that are still possible, or of boards
+	 * solved in games on several boards
 	 * 
-	 * @param guess result
-	 */
-	private void updateKeyboardColors(String guessResult) {
-		// Goes through each key in the keyboard
-		for (int i = 0; i < keyboardButtons.size(); i++) {
-			for (int j = 0; j < keyboardButtons.get(i).size(); j++) {
-				// Compares each key to the guess
-				for (int k = 0; k < guessCharacterList.size(); k++) {
-					char currChar = guessCharacterList.get(k);
-					Button currButton = keyboardButtons.get(i).get(j);
-					if (("" + currChar).equals(currButton.getText().toLowerCase())) {
-						if (guessResult.charAt(k) == HIT_CHAR) {
-							currButton.setStyle(styleHandler.HIT_KEY_STYLE);
-						} else if (guessResult.charAt(k) == CONTAINS_CHAR) {
-							currButton.setStyle(styleHandler.CONTAINS_KEY_STYLE);
-						} else {
-							currButton.setStyle(styleHandler.MIS_KEY_STYLE);
-						}
-					}
-				}
-			}
+	 * @param remaining text
+	 */
+	private void updateRemainingText(Text text) {
+		if (session.getBoardCount() > 1) {
+			text.setText(session.getSolvedCount() + OF_TEXT + session.getBoardCount() + BOARDS_SOLVED_TEXT);
+			return;
 		}
+		int remaining = session.getCandidates().size();
+		text.setText(remaining + (remaining == 1 ? WORD_REMAINING_TEXT : WORDS_REMAINING_TEXT));
 	}
 	
 	/**
-	 * What will be called in the game loop
+	 * Updates the keyboard colors after a guess, showing the best state of
+	 * each letter over every board the guess was scored on
 	 * 
-	 * @param elapsed time
+	 * @param row of the guess
 	 */
-	private void step(int elapsedTime) {
-		updateLetters();
-		if (won || lost) {
-			handleEndGame();
+	private void updateKeyboardColors(int row) {
+		GameEvents.Repaint event = new GameEvents.Repaint();
+		event.begin();
+		long start = System.nanoTime();
+		// Only the keys whose state was upgraded by this guess are touched
+		int changed = 0;
+		for (int board = 0; board < boardViews.length; board++) {
+			if (isScored(board, row)) {
+				changed |= keyboardState.apply(session.getGuess(row), session.getResult(row, board),
+						engine.getWordLength());
+			}
 		}
+		while (changed != 0) {
+			int letter = Integer.numberOfTrailingZeros(changed);
+			changed &= changed - 1;
+			styleHandler.setKeyState(letterButtons[letter], keyboardState.get(letter));
+		}
+		endRepaint(event, start, KEYBOARD_TARGET, row);
 	}
 	
 	/**
-	 * Submits a guess to the controller to see if its valid
+	 * Records how long a repaint took
+	 * 
+	 * @param event begun before the repaint
+	 * @param start time from System.nanoTime
+	 * @param target that was repainted
+	 * @param row of the guess
 	 */
-	private void submitGuess() {
-		// Convert list to string
-		String guess = "";
-		for (Character c : guessCharacterList) {
-			guess += c;
+	private void endRepaint(GameEvents.Repaint event, long start, String target, int row) {
+		Metrics.get().recordRepaint(System.nanoTime() - start);
+		event.end();
+		if (event.shouldCommit()) {
+			event.target = target;
+			event.row = row;
+			event.commit();
 		}
-		// If the guess is valid update GUI with result and add a guess
-		if (isInWordList(guess)) {
-			String guessResult = checkGuess(guess);
-			updateRectangleColors(guessResult);
-			updateKeyboardColors(guessResult);
-			// Check for end game
-			if (guess.equals(secretWord)) {
-				won = true;
-			} else if (guessCount == NUM_GUESSES-1) { 
-				lost = true;
-			}
-			// Dont increment if game is over
-			if (!won && !lost) {
-				guessCharacterList.clear();
-				guessCount++;
+	}
+	
+	/**
+	 * Replaces the typed letters with the best next guess once the solver
+	 * is built, without blocking the JavaFX thread while it is
+	 */
+	private void showHint() {
+		if (session.isOver() || hintPending) return;
+		hintPending = true;
+		solver.whenCompleteAsync((ready, error) -> {
+			hintPending = false;
+			if (error != null) {
+				error.printStackTrace();
+				return;
 			}
+			typeHint(ready);
+		}, Platform::runLater);
+	}
+	
+	/**
+	 * Replaces the typed letters with the best next guess, on the JavaFX thread
+	 *
+	 * @param solver that is built
+	 */
+	private void typeHint(EntropySolver ready) {
+		// The game may have ended while the solver was being built
+		if (session.isOver()) return;
+		long hint = engine.getDictionary().get(ready.bestGuess(session));
+		session.clearInput();
+		for (int i = 0; i < engine.getWordLength(); i++) {
+			session.typeLetter((char) ('a' + WordDictionary.letterAt(hint, i)));
 		}
 	}
 	
@@ -462,43 +673,82 @@ public class Wordle extends Application {
 	 * Handles either a win or loss
 	 */
 	private void handleEndGame() {
+		GameEvents.EndGame event = new GameEvents.EndGame();
+		event.begin();
 		// Add the play again button
 		Button playAgain = new Button(PLAY_AGAIN_TEXT);
-		playAgain.setStyle(styleHandler.PLAY_AGAIN_STYLE);
+		styleHandler.apply(playAgain, styleHandler.PLAY_AGAIN_STYLE);
 		VBox.setMargin(playAgain, new Insets(PLAY_AGAIN_TOP_MARGIN, 0, 0, 0));
 		// Add text for a win or loss
 		Text endGameText = new Text();
-		endGameText.setStyle(styleHandler.WIN_LOSS_STYLE);
+		styleHandler.apply(endGameText, styleHandler.WIN_LOSS_STYLE);
 		VBox.setMargin(endGameText, new Insets(WIN_LOSS_TOP_MARGIN, 0, 0, 0));
+		// Add the player statistics, already updated in memory
+		VBox statsBox = setupStats();
+		VBox.setMargin(statsBox, new Insets(STATS_TOP_MARGIN, 0, 0, 0));
 		// Set action for the play again button
 		playAgain.setOnAction(value -> {
 			playAgain();
-			root.getChildren().remove(endGameText);
-			root.getChildren().remove(playAgain);
+			root.getChildren().removeAll(endGameText, statsBox, playAgain);
 		});
-		if (won) {
-			// Reset win status
-			won = false;	
+		if (session.isWon()) {
 			// Add text incidicating a win
 			endGameText.setText(YOU_WON_TEXT);
-		} else if (lost) {
-			// Reset lost status
-			lost = false;
-			
-			// Indicate what the word was to the user
-			endGameText.setText("The word was: " + this.secretWord);
+		} else if (session.isLost()) {
+			// Indicate what the words were to the user
+			endGameText.setText((session.getBoardCount() == 1 ? WORD_WAS_TEXT : WORDS_WERE_TEXT) + secretWords());
+		}
+		root.getChildren().addAll(endGameText, statsBox, playAgain);
+		event.end();
+		if (event.shouldCommit()) {
+			event.won = session.isWon();
+			event.guesses = session.getGuessCount();
+			event.commit();
 		}
-		root.getChildren().addAll(endGameText, playAgain);
+	}
+	
+	/**
+	 * Lists the secret words of every board
+	 * 
+	 * @return words separated by spaces
+	 */
+	private String secretWords() {
+		StringBuilder words = new StringBuilder(session.getSecretWord(0));
+		for (int board = 1; board < session.getBoardCount(); board++) {
+			words.append(' ').append(session.getSecretWord(board));
+		}
+		return words.toString();
+	}
+	
+	/**
+	 * Creates the lines of player statistics for the end of a game
+	 * 
+	 * @return VBox with the totals and guess distribution, empty without stats
+	 */
+	private VBox setupStats() {
+		VBox statsBox = new VBox();
+		statsBox.setAlignment(ROOT_POSITION);
+		if (stats == null) return statsBox;
+		Text totals = new Text(PLAYED_TEXT + stats.getPlayed() + WIN_PERCENT_TEXT + stats.getWinPercentage()
+				+ CURRENT_STREAK_TEXT + stats.getCurrentStreak() + MAX_STREAK_TEXT + stats.getMaxStreak());
+		styleHandler.apply(totals, styleHandler.STATS_STYLE);
+		StringBuilder line = new StringBuilder(DISTRIBUTION_TEXT);
+		int maxGuesses = Math.min(engine.getNumGuesses(), PlayerStats.MAX_GUESSES);
+		for (int guesses = 1; guesses <= maxGuesses; guesses++) {
+			line.append("   ").append(guesses).append(": ").append(stats.getWonIn(guesses));
+		}
+		Text distribution = new Text(line.toString());
+		styleHandler.apply(distribution, styleHandler.STATS_STYLE);
+		statsBox.getChildren().addAll(totals, distribution);
+		return statsBox;
 	}
 	
 	/**
 	 * Resets the grid to have starting values
 	 */
 	private void resetGrid() {
-		for (int i = 0; i < gridWordleRectangles.length; i++) {
-			for (int j = 0; j < gridWordleRectangles[i].length; j++) {
-				gridWordleRectangles[i][j].reset();
-			}
+		for (BoardView boardView : boardViews) {
+			boardView.reset();
 		}
 	}
 	
@@ -506,28 +756,22 @@ public class Wordle extends Application {
 	 * Resets the keyboard to its starting values
 	 */
 	private void resetKeyboard() {
-		for (int i = 0; i < keyboardButtons.size(); i++) {
-			for (int j = 0; j < keyboardButtons.get(i).size(); j++) {
-				Button curr = keyboardButtons.get(i).get(j);
-				curr.setStyle(styleHandler.STARTING_KEY_STYLE);
+		// Only keys that were colored need their style reset
+		for (int letter = 0; letter < letterButtons.length; letter++) {
+			if (keyboardState.get(letter) != KeyboardState.UNKNOWN) {
+				styleHandler.setKeyState(letterButtons[letter], KeyboardState.UNKNOWN);
 			}
 		}
+		keyboardState.reset();
 	}
 	
 	/**
 	 * Allows the user to reset and play again
 	 */
 	private void playAgain() {
-		// Clear the list
-		guessCharacterList.clear();
-		// Reset guess count
-		guessCount = 0;
-		// Pick a new word to guess
-		secretWord = getRandomWord();
-		// Reset the grid
-		resetGrid();
-		// Resets the GUI keyboard
-		resetKeyboard();
+		// Pick new words to guess, the grid and keyboard reset when the session does
+		session.reset();
+		session.setAdversarial(absurdle);
 	}
 	
 	/**
@@ -539,94 +783,16 @@ public class Wordle extends Application {
 		scene.setOnKeyPressed(new EventHandler<KeyEvent>() {
 			@Override
 			public void handle(KeyEvent event) {
-				if (!won || !lost) {
-					switch (event.getCode()) {
-					case A: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('a');
-						break;
-					case B: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('b');
-						break;
-					case C: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('c');
-						break;
-					case D: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('d');
-						break;
-					case E: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('e');
-						break;
-					case F: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('f');
-						break;
-					case G: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('g');
-						break;
-					case H: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('h');
-						break;
-					case I: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('i');
-						break;
-					case J: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('j');
-						break;
-					case K: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('k');
-						break;
-					case L: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('l');
-						break;
-					case M: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('m');
-						break;
-					case N: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('n');
-						break;
-					case O: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('o');
-						break;
-					case P: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('p');
-						break;
-					case Q: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('q');
-						break;
-					case R: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('r');
-						break;
-					case S: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('s');
-						break;
-					case T: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('t');
-						break;
-					case U: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('u');
-						break;
-					case V: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('v');
-						break;
-					case W: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('w');
-						break;
-					case X: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('x');
-						break;
-					case Y: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('y');
-						break;
-					case Z: 
-						if (guessCharacterList.size() < WORD_LENGTH) guessCharacterList.add('z');
-						break;
-					case ENTER: 
-						if (guessCharacterList.size() == WORD_LENGTH) submitGuess();
-						break;
-					case BACK_SPACE: 
-						int finalIndex = guessCharacterList.size()-1;
-						if (guessCharacterList.size() > 0) guessCharacterList.remove(finalIndex);
-						break;
-					}
+				switch (event.getCode()) {
+				case ENTER: 
+					session.submitGuess();
+					break;
+				case BACK_SPACE: 
+					session.deleteLetter();
+					break;
+				default:
+					if (event.getCode().isLetterKey()) session.typeLetter(event.getCode().getChar().charAt(0));
+					break;
 				}
 			}
 		});
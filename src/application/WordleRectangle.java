@@ -16,8 +16,8 @@ import javafx.scene.text.Text;
 public class WordleRectangle {
 	
 	// Attributes
-	private final int FONT_SIZE = 15;
-	private final int RECTANGLE_SIZE = 50;
+	public static final int RECTANGLE_SIZE = 50;
+	private final double FONT_SCALE = 0.3;
 	private final String FONT = "Helvetica";
 	private final FontWeight FONT_WEIGHT = FontWeight.BOLD;
 	private final StrokeType INSIDE_STROKE = StrokeType.INSIDE;
@@ -26,6 +26,7 @@ public class WordleRectangle {
 	private final Color TEXT_COLOR = Color.WHITE;
 	
 	// Variables
+	private Color startingColor = STARTING_COLOR;
 	private Rectangle rect;
 	private Text text;
 	private StackPane rectWithText;
@@ -37,10 +38,21 @@ public class WordleRectangle {
 	 * @param yPos of rectangle
 	 */
 	public WordleRectangle(int x, int y) {
+		this(x, y, RECTANGLE_SIZE);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param xPos of rectangle
+	 * @param yPos of rectangle
+	 * @param width and height of the rectangle
+	 */
+	public WordleRectangle(int x, int y, double size) {
 		// Rectangle
-		rect = setupRectangle(x, y);
-		// Text
-		text = setupText();
+		rect = setupRectangle(x, y, size);
+		// Text, scaled with the rectangle
+		text = setupText(size * FONT_SCALE);
 		// Combined rectangle and text
 		rectWithText = setupStackPane(rect, text);
 	}
@@ -50,10 +62,11 @@ public class WordleRectangle {
 	 * 
 	 * @param xPos of rectangle
 	 * @param yPos of rectangle
+	 * @param width and height of the rectangle
 	 * @return rectangle
 	 */
-	private Rectangle setupRectangle(int x, int y) {
-		Rectangle rect = new Rectangle(x * RECTANGLE_SIZE, y * RECTANGLE_SIZE, RECTANGLE_SIZE, RECTANGLE_SIZE);
+	private Rectangle setupRectangle(int x, int y, double size) {
+		Rectangle rect = new Rectangle(x * size, y * size, size, size);
 		rect.setFill(STARTING_COLOR);
 		rect.setStroke(BORDER_STROKE_COLOR);
 		rect.setStrokeType(INSIDE_STROKE);
@@ -63,12 +76,13 @@ public class WordleRectangle {
 	/**
 	 * Creates text with certain attributes
 	 * 
+	 * @param font size
 	 * @return text
 	 */
-	private Text setupText() {
+	private Text setupText(double fontSize) {
 		Text text = new Text();
 		text.setFill(TEXT_COLOR);
-		text.setFont(Font.font(FONT, FONT_WEIGHT, FONT_SIZE));
+		text.setFont(Font.font(FONT, FONT_WEIGHT, fontSize));
 		return text;
 	}
 	
@@ -93,6 +107,28 @@ public class WordleRectangle {
 		this.rect.setFill(color);
 	}
 	
+	/**
+	 * Sets the colors of the rectangle before it has a result, which reset
+	 * goes back to
+	 * 
+	 * @param fill color
+	 * @param border color
+	 */
+	public void setStartingColors(Color fill, Color border) {
+		this.startingColor = fill;
+		this.rect.setFill(fill);
+		this.rect.setStroke(border);
+	}
+	
+	/**
+	 * Sets the color of the text
+	 * 
+	 * @param color
+	 */
+	public void setTextFill(Color color) {
+		this.text.setFill(color);
+	}
+	
 	/**
 	 * Sets the string of the text
 	 * 
@@ -116,7 +152,7 @@ public class WordleRectangle {
 	 */
 	public void reset() {
 		text.setText("");
-		rect.setFill(STARTING_COLOR);
+		rect.setFill(startingColor);
 	}
 	
 }